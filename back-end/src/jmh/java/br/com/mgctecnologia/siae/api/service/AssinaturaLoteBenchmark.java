@@ -0,0 +1,91 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.config.ExecutorConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão de um lote de assinaturas pelo pool assinaturaExecutor (o mesmo padrão do
+ * AssinaturaLoteService, sem o envio ao armazenamento), variando o número de workers:
+ * 1, 4 e um por núcleo ("max", o padrão de siae.assinatura.threads=0).
+ * O resultado sai por documento assinado (OperationsPerInvocation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class AssinaturaLoteBenchmark {
+
+    private static final int LOTE = 16;
+
+    @Param({"1", "4", "max"})
+    public String threads;
+
+    @Param({"100KB", "5MB"})
+    public String tamanho;
+
+    private Path pasta;
+    private Path pdf;
+    private AssinaturaDigitalService assinaturaService;
+    private ThreadPoolTaskExecutor executor;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        pasta = Files.createTempDirectory("siae-jmh-lote-");
+        CertificadoService certificadoService = FixturesBenchmark.certificadoConfigurado(pasta.resolve("certs"));
+        assinaturaService = new AssinaturaDigitalService(certificadoService,
+                new TemporizadorEtapas(new SimpleMeterRegistry()));
+        pdf = FixturesBenchmark.gerarPdf(pasta.resolve("documento.pdf"), FixturesBenchmark.tamanhoEmBytes(tamanho));
+
+        // Mesmo pool da aplicação, com o número de workers do parâmetro (0 = núcleos disponíveis)
+        ExecutorConfig config = new ExecutorConfig();
+        ReflectionTestUtils.setField(config, "assinaturaThreads", threads.equals("max") ? 0 : Integer.parseInt(threads));
+        ReflectionTestUtils.setField(config, "assinaturaFila", 200);
+        executor = config.assinaturaExecutor();
+        executor.initialize();
+    }
+
+    @TearDown(Level.Trial)
+    public void limpar() throws Exception {
+        executor.shutdown();
+        FixturesBenchmark.apagar(pasta);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public void assinarLote() throws Exception {
+        List<CompletableFuture<Void>> futuros = new ArrayList<>(LOTE);
+        for (int i = 0; i < LOTE; i++) {
+            futuros.add(CompletableFuture.runAsync(() -> {
+                Path assinado = null;
+                try {
+                    assinado = Files.createTempFile(pasta, "assinado-", ".pdf");
+                    assinaturaService.assinarArquivo(pdf, assinado);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                } finally {
+                    if (assinado != null) {
+                        try {
+                            Files.deleteIfExists(assinado);
+                        } catch (Exception ignorada) {
+                            // Temporário some junto com a pasta no TearDown
+                        }
+                    }
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(futuros.toArray(new CompletableFuture[0])).join();
+    }
+}
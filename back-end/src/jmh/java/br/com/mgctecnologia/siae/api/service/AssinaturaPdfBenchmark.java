@@ -0,0 +1,57 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assinatura de PDF ponta a ponta, comparando o modo em memória (byte[]) com o modo em arquivo
+ * (scratch file + hash em stream). Para medir vazão com várias threads use -t 1, -t 4 ou -t max,
+ * e -prof gc para ver a alocação por operação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class AssinaturaPdfBenchmark {
+
+    @Param({"100KB", "5MB", "50MB"})
+    public String tamanho;
+
+    private Path pasta;
+    private Path pdf;
+    private byte[] pdfBytes;
+    private AssinaturaDigitalService assinaturaService;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        pasta = Files.createTempDirectory("siae-jmh-");
+        CertificadoService certificadoService = FixturesBenchmark.certificadoConfigurado(pasta.resolve("certs"));
+        assinaturaService = new AssinaturaDigitalService(certificadoService,
+                new TemporizadorEtapas(new SimpleMeterRegistry()));
+
+        pdf = FixturesBenchmark.gerarPdf(pasta.resolve("documento.pdf"), FixturesBenchmark.tamanhoEmBytes(tamanho));
+        pdfBytes = Files.readAllBytes(pdf);
+    }
+
+    @TearDown(Level.Trial)
+    public void limpar() throws Exception {
+        FixturesBenchmark.apagar(pasta);
+    }
+
+    @Benchmark
+    public byte[] assinarEmMemoria() throws Exception {
+        return assinaturaService.assinarDocumento(pdfBytes);
+    }
+
+    @Benchmark
+    public void assinarViaArquivo() throws Exception {
+        assinaturaService.assinarDocumento(pdf.toFile(), OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,78 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Partes isoladas do caminho de assinatura: geração do CMS, carga do keystore com e sem
+ * o cache de credencial e a assinatura de texto usada por /api/assinatura/assinar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class CriptografiaBenchmark {
+
+    private Path pasta;
+    private CertificadoService certificadoService;
+    private AssinaturaDigitalService assinaturaService;
+    private CredencialAssinatura credencial;
+    private byte[] intervaloAssinado;
+    private byte[] pfx;
+    private String texto;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        pasta = Files.createTempDirectory("siae-jmh-");
+        certificadoService = FixturesBenchmark.certificadoConfigurado(pasta.resolve("certs"));
+        assinaturaService = new AssinaturaDigitalService(certificadoService,
+                new TemporizadorEtapas(new SimpleMeterRegistry()));
+        credencial = certificadoService.getCredencialAssinatura();
+        pfx = FixturesBenchmark.gerarPkcs12();
+
+        intervaloAssinado = new byte[100 * 1024];
+        new Random(42).nextBytes(intervaloAssinado);
+        texto = "Processo 2024/0001 - Requerimento de férias do servidor público municipal";
+    }
+
+    @TearDown(Level.Trial)
+    public void limpar() throws Exception {
+        FixturesBenchmark.apagar(pasta);
+    }
+
+    @Benchmark
+    public byte[] gerarAssinaturaPKCS7() throws Exception {
+        return assinaturaService.gerarAssinaturaPKCS7(new ByteArrayInputStream(intervaloAssinado), credencial);
+    }
+
+    // Caminho antigo: abre e decifra o PKCS12 a cada assinatura
+    @Benchmark
+    public CredencialAssinatura carregarKeystoreSemCache() throws Exception {
+        char[] senha = FixturesBenchmark.SENHA.toCharArray();
+        KeyStore ks = KeyStore.getInstance("PKCS12");
+        try (InputStream in = new ByteArrayInputStream(pfx)) {
+            ks.load(in, senha);
+        }
+        return CredencialAssinatura.carregar(ks, senha, 0L);
+    }
+
+    @Benchmark
+    public CredencialAssinatura obterCredencialEmCache() throws Exception {
+        return certificadoService.getCredencialAssinatura();
+    }
+
+    @Benchmark
+    public String assinarTexto() throws Exception {
+        return assinaturaService.assinarDocumento(texto);
+    }
+}
@@ -0,0 +1,112 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Material de teste gerado na hora: certificado autoassinado PKCS12 e PDFs de tamanho controlado.
+ */
+final class FixturesBenchmark {
+
+    static final String SENHA = "siae-benchmark";
+
+    private FixturesBenchmark() {
+    }
+
+    /**
+     * CertificadoService isolado em uma pasta temporária, já configurado com um PFX autoassinado.
+     */
+    static CertificadoService certificadoConfigurado(Path pasta) throws Exception {
+        CertificadoService certificadoService = new CertificadoService(pasta);
+        certificadoService.configurarCertificado(
+                new MockMultipartFile("arquivo", "benchmark.pfx", "application/x-pkcs12", gerarPkcs12()), SENHA);
+        return certificadoService;
+    }
+
+    static byte[] gerarPkcs12() throws Exception {
+        KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA");
+        kpg.initialize(2048);
+        KeyPair par = kpg.generateKeyPair();
+
+        X500Name titular = new X500Name("CN=SIAE Benchmark, O=MGC Tecnologia");
+        Date inicio = new Date();
+        Date fim = new Date(inicio.getTime() + 365L * 24 * 60 * 60 * 1000);
+        X509Certificate certificado = new JcaX509CertificateConverter().getCertificate(
+                new JcaX509v3CertificateBuilder(titular, BigInteger.valueOf(inicio.getTime()), inicio, fim, titular, par.getPublic())
+                        .build(new JcaContentSignerBuilder("SHA256withRSA").build(par.getPrivate())));
+
+        KeyStore ks = KeyStore.getInstance("PKCS12");
+        ks.load(null, null);
+        ks.setKeyEntry("siae", par.getPrivate(), SENHA.toCharArray(), new Certificate[]{certificado});
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ks.store(out, SENHA.toCharArray());
+        return out.toByteArray();
+    }
+
+    /**
+     * PDF de uma página com um stream de bytes aleatórios (incompressível) pendurado na página,
+     * para chegar ao tamanho pedido sem depender de conteúdo real.
+     */
+    static Path gerarPdf(Path destino, long tamanhoBytes) throws IOException {
+        Random random = new Random(42);
+        byte[] bloco = new byte[1024 * 1024];
+
+        try (PDDocument doc = new PDDocument()) {
+            PDPage pagina = new PDPage();
+            doc.addPage(pagina);
+
+            COSStream carga = doc.getDocument().createCOSStream();
+            try (OutputStream out = carga.createRawOutputStream()) {
+                long restante = tamanhoBytes;
+                while (restante > 0) {
+                    random.nextBytes(bloco);
+                    int n = (int) Math.min(bloco.length, restante);
+                    out.write(bloco, 0, n);
+                    restante -= n;
+                }
+            }
+            pagina.getCOSObject().setItem(COSName.getPDFName("SiaeCarga"), carga);
+            doc.save(destino.toFile());
+        }
+        return destino;
+    }
+
+    static long tamanhoEmBytes(String tamanho) {
+        if (tamanho.endsWith("KB")) return Long.parseLong(tamanho.replace("KB", "")) * 1024;
+        if (tamanho.endsWith("MB")) return Long.parseLong(tamanho.replace("MB", "")) * 1024 * 1024;
+        return Long.parseLong(tamanho);
+    }
+
+    static void apagar(Path pasta) throws IOException {
+        if (pasta == null || !Files.exists(pasta)) return;
+        try (Stream<Path> arquivos = Files.walk(pasta)) {
+            for (Path p : arquivos.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+}
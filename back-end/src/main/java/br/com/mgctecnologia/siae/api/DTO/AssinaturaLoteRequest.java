@@ -0,0 +1,14 @@
+package br.com.mgctecnologia.siae.api.DTO;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class AssinaturaLoteRequest {
+    // Processo dono dos documentos; só anexos dele podem ser assinados
+    private Long idProcesso;
+
+    // Nomes dos objetos já armazenados no MinIO que devem ser assinados
+    private List<String> objetos;
+}
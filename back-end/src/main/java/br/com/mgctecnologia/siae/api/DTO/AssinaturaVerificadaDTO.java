@@ -0,0 +1,17 @@
+package br.com.mgctecnologia.siae.api.DTO;
+
+import lombok.Data;
+
+import java.util.Date;
+
+@Data
+public class AssinaturaVerificadaDTO {
+    private String nome;                  // Nome informado no dicionário da assinatura
+    private String assinante;             // DN do certificado que assinou
+    private Date dataAssinatura;          // signingTime do CMS (ou /M do PDF, se ausente)
+    private boolean integra;              // Hash do ByteRange confere com o CMS
+    private boolean cobreDocumentoInteiro; // Falso quando houve alterações incrementais depois desta assinatura
+    private boolean certificadoConfere;   // Assinado pelo certificado configurado (ou emitido pela mesma cadeia)
+    private boolean certificadoValidoNaData;
+    private String erro;
+}
@@ -0,0 +1,14 @@
+package br.com.mgctecnologia.siae.api.DTO;
+
+import br.com.mgctecnologia.siae.api.model.TipoDocumento;
+import lombok.Data;
+
+@Data
+public class CriarSessaoUploadRequest {
+    private Long idProcesso;
+    private TipoDocumento tipo;
+    private String nomeArquivo;
+    private String contentType;
+    private Long tamanhoTotal;   // Em bytes
+    private Long tamanhoParte;   // Opcional; mínimo de 5 MB (exigência do compose do MinIO)
+}
@@ -0,0 +1,18 @@
+package br.com.mgctecnologia.siae.api.DTO;
+
+import lombok.Data;
+
+/**
+ * Só indica quais anexos existem; os links são pedidos à parte (GET /processos/{id}/links).
+ */
+@Data
+public class DocsPresentesDTO {
+    private Long id_docs;
+    private boolean reqPessoa;
+    private boolean memSolicitacaoJur;
+    private boolean parecerJuridico;
+    private boolean reqDecPrefeito;
+    private boolean decisaoPref;
+    private boolean outros;
+    private boolean memorandoPref;
+}
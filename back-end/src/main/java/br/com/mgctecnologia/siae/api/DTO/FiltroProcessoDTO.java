@@ -0,0 +1,19 @@
+package br.com.mgctecnologia.siae.api.DTO;
+
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.Setor;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.Status;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros opcionais de processos; campos nulos não restringem a consulta.
+ */
+@Data
+public class FiltroProcessoDTO {
+    private Status status;
+    private Setor setor;
+    private LocalDate aberturaDe;
+    private LocalDate aberturaAte;
+    private Long idServidor;
+}
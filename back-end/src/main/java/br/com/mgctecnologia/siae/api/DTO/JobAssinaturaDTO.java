@@ -0,0 +1,34 @@
+package br.com.mgctecnologia.siae.api.DTO;
+
+import br.com.mgctecnologia.siae.api.model.JobAssinatura;
+import br.com.mgctecnologia.siae.api.model.StatusJobAssinatura;
+import br.com.mgctecnologia.siae.api.model.TipoDocumento;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+public class JobAssinaturaDTO {
+
+    private Long id;
+    private Long idProcesso;
+    private TipoDocumento tipoDocumento;
+    private StatusJobAssinatura status;
+    private String objetoDestino;
+    private String erro;
+    private LocalDateTime dataCriacao;
+    private LocalDateTime dataAtualizacao;
+
+    public JobAssinaturaDTO(JobAssinatura entity) {
+        this.id = entity.getId();
+        this.idProcesso = entity.getIdProcesso();
+        this.tipoDocumento = entity.getTipoDocumento();
+        this.status = entity.getStatus();
+        this.objetoDestino = entity.getObjetoDestino();
+        this.erro = entity.getErro();
+        this.dataCriacao = entity.getDataCriacao();
+        this.dataAtualizacao = entity.getDataAtualizacao();
+    }
+}
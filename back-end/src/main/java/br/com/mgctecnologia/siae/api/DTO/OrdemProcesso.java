@@ -0,0 +1,9 @@
+package br.com.mgctecnologia.siae.api.DTO;
+
+/**
+ * Ordenação da listagem paginada; o id desempata, então a ordem é estável entre páginas.
+ */
+public enum OrdemProcesso {
+    RECENTES,   // id_processo decrescente (ordem de cadastro)
+    ABERTURA    // data_abertura decrescente, depois id_processo decrescente
+}
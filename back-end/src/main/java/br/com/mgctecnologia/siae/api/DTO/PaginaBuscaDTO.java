@@ -0,0 +1,14 @@
+package br.com.mgctecnologia.siae.api.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PaginaBuscaDTO {
+    private List<ProcessoResumoDTO> itens;  // Mais relevantes primeiro
+    private int pagina;
+    private boolean temMais;
+}
@@ -0,0 +1,14 @@
+package br.com.mgctecnologia.siae.api.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PaginaProcessosDTO {
+    private List<ProcessoResumoDTO> itens;
+    private String proximoCursor;  // Repassar em ?cursor= para a página seguinte; nulo na última
+    private boolean temMais;
+}
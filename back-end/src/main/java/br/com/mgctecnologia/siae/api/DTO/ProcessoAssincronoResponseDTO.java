@@ -0,0 +1,14 @@
+package br.com.mgctecnologia.siae.api.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProcessoAssincronoResponseDTO {
+    private Long id_processo;
+    // Assinaturas que ainda vão rodar; acompanhe em /api/assinatura/jobs/{id}
+    private List<JobAssinaturaDTO> jobs;
+}
@@ -0,0 +1,25 @@
+package br.com.mgctecnologia.siae.api.DTO;
+
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.Setor;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.Status;
+import lombok.Data;
+import java.time.LocalDate;
+
+/**
+ * Representação enxuta para listagens: mesmos campos do ProcessoDigitalResponseDTO,
+ * mas sem as URLs pré-assinadas dos anexos.
+ */
+@Data
+public class ProcessoResumoDTO {
+    private Long id_processo;
+    private String nomeBeneficiado;
+    private String telefone;
+    private LocalDate dataAbertura;
+    private Integer estimativa;
+    private LocalDate dataPrevisao;
+    private LocalDate dataFechamento;
+    private Setor setor;
+    private Status status;
+    private DocsPresentesDTO documentos;
+    private String assunto;
+}
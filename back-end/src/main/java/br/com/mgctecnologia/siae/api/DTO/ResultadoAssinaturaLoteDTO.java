@@ -0,0 +1,12 @@
+package br.com.mgctecnologia.siae.api.DTO;
+
+import lombok.Data;
+
+@Data
+public class ResultadoAssinaturaLoteDTO {
+    private String nome;         // Nome do arquivo enviado ou objeto de origem
+    private boolean sucesso;
+    private String objetoAssinado;
+    private String url;          // Link temporário do arquivo assinado
+    private String erro;         // Preenchido apenas quando o item falha
+}
@@ -0,0 +1,37 @@
+package br.com.mgctecnologia.siae.api.DTO;
+
+import br.com.mgctecnologia.siae.api.model.SessaoUpload;
+import br.com.mgctecnologia.siae.api.model.TipoDocumento;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class SessaoUploadDTO {
+    private String id;
+    private Long idProcesso;
+    private TipoDocumento tipo;
+    private long tamanhoTotal;
+    private long tamanhoParte;
+    private int totalPartes;
+    private List<Integer> partesRecebidas;
+    private List<String> intervalosRecebidos; // Faixas de bytes já recebidas, ex.: "0-16777215"
+    private long bytesRecebidos;
+    private boolean concluida;
+    private String objetoFinal;
+    private Long idJob;                        // Job de assinatura, quando o documento exige assinatura
+
+    public SessaoUploadDTO(SessaoUpload sessao) {
+        this.id = sessao.getId();
+        this.idProcesso = sessao.getIdProcesso();
+        this.tipo = sessao.getTipoDocumento();
+        this.tamanhoTotal = sessao.getTamanhoTotal();
+        this.tamanhoParte = sessao.getTamanhoParte();
+        this.totalPartes = sessao.getTotalPartes();
+        this.concluida = sessao.getDataConclusao() != null;
+        this.objetoFinal = sessao.getObjetoFinal();
+        this.idJob = sessao.getIdJob();
+    }
+}
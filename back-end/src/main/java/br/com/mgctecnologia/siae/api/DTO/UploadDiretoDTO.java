@@ -0,0 +1,21 @@
+package br.com.mgctecnologia.siae.api.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Autorização para o navegador enviar o arquivo direto ao MinIO: POST multipart para {@code url}
+ * com todos os {@code campos} e, por último, o campo "file". Depois, confirmar com o {@code objeto}.
+ */
+@Data
+@AllArgsConstructor
+public class UploadDiretoDTO {
+    private String objeto;
+    private String url;
+    private Map<String, String> campos;
+    private long tamanhoMaximo;
+    private Instant expiraEm;
+}
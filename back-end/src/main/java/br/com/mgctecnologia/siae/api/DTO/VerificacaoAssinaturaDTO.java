@@ -0,0 +1,16 @@
+package br.com.mgctecnologia.siae.api.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class VerificacaoAssinaturaDTO {
+    private String objeto;
+    private String sha256;
+    private boolean valido;       // Há assinaturas, todas passaram nas verificações e nada foi acrescentado depois da última
+    private boolean emCache;      // Veredito reaproveitado de uma verificação anterior do mesmo conteúdo
+    private List<AssinaturaVerificadaDTO> assinaturas;
+}
@@ -0,0 +1,198 @@
+package br.com.mgctecnologia.siae.api.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bouncycastle.util.encoders.Hex;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Cache de conteúdo em disco local limitado por bytes, com descarte do menos usado (LRU).
+ * Cada chave vira um arquivo {sha256(chave)}.bin; só entram arquivos completos (gravados num
+ * temporário e renomeados), então uma leitura nunca vê conteúdo pela metade. O índice é
+ * reconstruído a partir do diretório na subida, então o cache sobrevive a reinícios.
+ */
+public class CacheDisco {
+
+    private static final String EXTENSAO = ".bin";
+
+    private final String nome;
+    private final Path diretorio;
+    private final long maximoBytes;
+    // Nome do arquivo -> tamanho, em ordem de acesso
+    private final LinkedHashMap<String, Long> arquivos = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong acertos = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+    private final AtomicLong descartes = new AtomicLong();
+    private final AtomicLong bytesEconomizados = new AtomicLong();
+
+    public CacheDisco(String nome, Path diretorio, long maximoBytes) throws IOException {
+        if (maximoBytes <= 0) throw new IllegalArgumentException("O tamanho máximo do cache em disco deve ser positivo.");
+        this.nome = nome;
+        this.diretorio = diretorio;
+        this.maximoBytes = maximoBytes;
+        Files.createDirectories(diretorio);
+        carregarExistentes();
+    }
+
+    /**
+     * Abre o conteúdo em cache para leitura, ou null se a chave não está no cache. O canal continua
+     * válido mesmo que a entrada seja descartada enquanto é lida.
+     */
+    public synchronized FileChannel abrir(String chave) {
+        String arquivo = nomeArquivo(chave);
+        Long tamanho = arquivos.get(arquivo);
+        if (tamanho != null) {
+            try {
+                FileChannel canal = FileChannel.open(diretorio.resolve(arquivo), StandardOpenOption.READ);
+                acertos.incrementAndGet();
+                return canal;
+            } catch (IOException e) {
+                // Arquivo apagado por fora: esquece a entrada
+                arquivos.remove(arquivo);
+                totalBytes -= tamanho;
+            }
+        }
+        falhas.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Arquivo temporário no próprio diretório do cache (mesmo volume, para o rename ser atômico).
+     */
+    public Path novoTemporario() throws IOException {
+        return Files.createTempFile(diretorio, "parcial-", ".tmp");
+    }
+
+    /**
+     * Move um temporário já completo para o cache e descarta os menos usados até caber.
+     * Conteúdo maior que o próprio cache é só apagado.
+     */
+    public synchronized void adicionar(String chave, Path temporario) throws IOException {
+        long tamanho = Files.size(temporario);
+        if (tamanho > maximoBytes) {
+            Files.deleteIfExists(temporario);
+            return;
+        }
+        String arquivo = nomeArquivo(chave);
+        Files.move(temporario, diretorio.resolve(arquivo), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Long anterior = arquivos.put(arquivo, tamanho);
+        totalBytes += tamanho - (anterior != null ? anterior : 0);
+        descartarExcedente();
+    }
+
+    /**
+     * Contabiliza bytes entregues a partir do disco em vez de baixados da origem.
+     */
+    public void economizou(long bytes) {
+        bytesEconomizados.addAndGet(bytes);
+    }
+
+    public synchronized int tamanho() {
+        return arquivos.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public double getTaxaAcertos() {
+        long total = acertos.get() + falhas.get();
+        return total == 0 ? 0 : (double) acertos.get() / total;
+    }
+
+    /**
+     * Publica entradas, bytes ocupados, acertos, falhas, taxa de acertos, descartes e bytes
+     * economizados (siae.cache.* com a tag "cache").
+     */
+    public CacheDisco registrarMetricas(MeterRegistry registry) {
+        Gauge.builder("siae.cache.tamanho", this, CacheDisco::tamanho)
+                .tag("cache", nome)
+                .register(registry);
+        Gauge.builder("siae.cache.bytes", this, CacheDisco::getTotalBytes)
+                .tag("cache", nome)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("siae.cache.taxa-acertos", this, CacheDisco::getTaxaAcertos)
+                .tag("cache", nome)
+                .register(registry);
+        FunctionCounter.builder("siae.cache.acertos", acertos, AtomicLong::get)
+                .tag("cache", nome)
+                .register(registry);
+        FunctionCounter.builder("siae.cache.falhas", falhas, AtomicLong::get)
+                .tag("cache", nome)
+                .register(registry);
+        FunctionCounter.builder("siae.cache.descartes", descartes, AtomicLong::get)
+                .tag("cache", nome)
+                .register(registry);
+        FunctionCounter.builder("siae.cache.bytes-economizados", bytesEconomizados, AtomicLong::get)
+                .tag("cache", nome)
+                .baseUnit("bytes")
+                .register(registry);
+        return this;
+    }
+
+    private void descartarExcedente() {
+        Iterator<Map.Entry<String, Long>> maisAntigos = arquivos.entrySet().iterator();
+        while (totalBytes > maximoBytes && maisAntigos.hasNext()) {
+            Map.Entry<String, Long> entrada = maisAntigos.next();
+            maisAntigos.remove();
+            totalBytes -= entrada.getValue();
+            descartes.incrementAndGet();
+            try {
+                Files.deleteIfExists(diretorio.resolve(entrada.getKey()));
+            } catch (IOException ignorada) {
+                // Fica órfão no disco até a próxima subida, que recalcula o índice
+            }
+        }
+    }
+
+    // Os mais recentes (por data de modificação) ficam no fim, como se tivessem sido usados por último
+    private void carregarExistentes() throws IOException {
+        List<Path> existentes;
+        try (Stream<Path> listagem = Files.list(diretorio)) {
+            existentes = listagem.toList();
+        }
+        for (Path caminho : existentes) {
+            if (caminho.getFileName().toString().endsWith(".tmp")) {
+                Files.deleteIfExists(caminho);
+            }
+        }
+        existentes.stream()
+                .filter(caminho -> caminho.getFileName().toString().endsWith(EXTENSAO))
+                .sorted(Comparator.comparingLong(caminho -> caminho.toFile().lastModified()))
+                .forEach(caminho -> {
+                    long tamanho = caminho.toFile().length();
+                    arquivos.put(caminho.getFileName().toString(), tamanho);
+                    totalBytes += tamanho;
+                });
+        descartarExcedente();
+    }
+
+    private static String nomeArquivo(String chave) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return Hex.toHexString(md.digest(chave.getBytes(StandardCharsets.UTF_8))) + EXTENSAO;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package br.com.mgctecnologia.siae.api.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cache em memória limitado por quantidade de entradas, com descarte do menos usado (LRU)
+ * e validade opcional por entrada. As métricas ficam em siae.cache.* com a tag "cache".
+ */
+public class CacheLRU<K, V> {
+
+    private record Entrada<V>(V valor, long expiraEm) {}
+
+    private final String nome;
+    private final int maximo;
+    private final long validadeNanos;
+    private final LinkedHashMap<K, Entrada<V>> entradas;
+
+    private final AtomicLong acertos = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+    private final AtomicLong descartes = new AtomicLong();
+
+    /**
+     * @param validade tempo de vida de cada entrada; null ou zero para não expirar
+     */
+    public CacheLRU(String nome, int maximo, Duration validade) {
+        if (maximo <= 0) throw new IllegalArgumentException("O tamanho máximo do cache deve ser positivo.");
+        this.nome = nome;
+        this.maximo = maximo;
+        this.validadeNanos = validade == null || validade.isZero() ? 0 : validade.toNanos();
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> maisAntiga) {
+                if (size() > CacheLRU.this.maximo) {
+                    descartes.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V obter(K chave) {
+        Entrada<V> entrada = entradas.get(chave);
+        if (entrada != null && !expirada(entrada, System.nanoTime())) {
+            acertos.incrementAndGet();
+            return entrada.valor();
+        }
+        if (entrada != null) {
+            entradas.remove(chave);
+        }
+        falhas.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Retorna o valor em cache ou calcula e guarda. O cálculo roda fora do lock: duas threads
+     * podem calcular a mesma chave ao mesmo tempo, mas nenhuma bloqueia as demais chaves.
+     * Valores nulos não são guardados.
+     */
+    public V obterOuCalcular(K chave, Function<? super K, ? extends V> calculo) {
+        V valor = obter(chave);
+        if (valor != null) {
+            return valor;
+        }
+        valor = calculo.apply(chave);
+        if (valor != null) {
+            colocar(chave, valor);
+        }
+        return valor;
+    }
+
+    public synchronized void colocar(K chave, V valor) {
+        long expiraEm = validadeNanos == 0 ? 0 : System.nanoTime() + validadeNanos;
+        entradas.put(chave, new Entrada<>(valor, expiraEm));
+    }
+
+    public synchronized void remover(K chave) {
+        entradas.remove(chave);
+    }
+
+    public synchronized void removerSe(Predicate<? super K> condicao) {
+        Iterator<K> chaves = entradas.keySet().iterator();
+        while (chaves.hasNext()) {
+            if (condicao.test(chaves.next())) {
+                chaves.remove();
+            }
+        }
+    }
+
+    public synchronized void limpar() {
+        entradas.clear();
+    }
+
+    public synchronized int tamanho() {
+        return entradas.size();
+    }
+
+    public long getAcertos() { return acertos.get(); }
+    public long getFalhas() { return falhas.get(); }
+
+    public double getTaxaAcertos() {
+        long total = acertos.get() + falhas.get();
+        return total == 0 ? 0 : (double) acertos.get() / total;
+    }
+
+    /**
+     * Publica tamanho, acertos, falhas, taxa de acertos e descartes por LRU no registro de métricas.
+     */
+    public CacheLRU<K, V> registrarMetricas(MeterRegistry registry) {
+        Gauge.builder("siae.cache.tamanho", this, CacheLRU::tamanho)
+                .tag("cache", nome)
+                .register(registry);
+        Gauge.builder("siae.cache.maximo", this, c -> c.maximo)
+                .tag("cache", nome)
+                .register(registry);
+        Gauge.builder("siae.cache.taxa-acertos", this, CacheLRU::getTaxaAcertos)
+                .tag("cache", nome)
+                .register(registry);
+        FunctionCounter.builder("siae.cache.acertos", acertos, AtomicLong::get)
+                .tag("cache", nome)
+                .register(registry);
+        FunctionCounter.builder("siae.cache.falhas", falhas, AtomicLong::get)
+                .tag("cache", nome)
+                .register(registry);
+        FunctionCounter.builder("siae.cache.descartes", descartes, AtomicLong::get)
+                .tag("cache", nome)
+                .register(registry);
+        return this;
+    }
+
+    private boolean expirada(Entrada<V> entrada, long agora) {
+        return entrada.expiraEm() != 0 && agora - entrada.expiraEm() >= 0;
+    }
+}
@@ -0,0 +1,106 @@
+package br.com.mgctecnologia.siae.api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    // 0 = um worker por núcleo disponível (assinatura RSA é limitada por CPU)
+    @Value("${siae.assinatura.threads:0}")
+    private int assinaturaThreads;
+
+    @Value("${siae.assinatura.fila:200}")
+    private int assinaturaFila;
+
+    /**
+     * Pool dedicado e limitado para assinaturas. Com a fila cheia a tarefa roda na própria
+     * thread que a enviou, o que segura novos lotes em vez de acumular trabalho sem limite.
+     */
+    @Bean(name = "assinaturaExecutor")
+    public ThreadPoolTaskExecutor assinaturaExecutor() {
+        int threads = assinaturaThreads > 0 ? assinaturaThreads : Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(assinaturaFila);
+        executor.setThreadNamePrefix("assinatura-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    @Value("${siae.jobs.threads:2}")
+    private int jobsThreads;
+
+    @Value("${siae.jobs.fila:500}")
+    private int jobsFila;
+
+    /**
+     * Pool dos jobs de assinatura assíncronos. Aqui a fila cheia rejeita a tarefa (o job continua
+     * PENDENTE no banco e é redisparado pela varredura), para nunca prender a thread da requisição.
+     */
+    @Bean(name = "jobAssinaturaExecutor")
+    public ThreadPoolTaskExecutor jobAssinaturaExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(jobsThreads);
+        executor.setMaxPoolSize(jobsThreads);
+        executor.setQueueCapacity(jobsFila);
+        executor.setThreadNamePrefix("job-assinatura-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    @Value("${siae.anexos.threads:8}")
+    private int anexosThreads;
+
+    @Value("${siae.anexos.fila:100}")
+    private int anexosFila;
+
+    /**
+     * Pool dos anexos de criação/atualização de processos (upload e assinatura em paralelo).
+     * Com a fila cheia a etapa roda na thread da requisição; o contexto da requisição é
+     * repassado às threads do pool para as medições entrarem no Server-Timing.
+     */
+    @Bean(name = "anexosExecutor")
+    public ThreadPoolTaskExecutor anexosExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(anexosThreads);
+        executor.setMaxPoolSize(anexosThreads);
+        executor.setQueueCapacity(anexosFila);
+        executor.setThreadNamePrefix("anexos-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(tarefa -> {
+            RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+            return () -> {
+                RequestAttributes anteriores = RequestContextHolder.getRequestAttributes();
+                RequestContextHolder.setRequestAttributes(atributos);
+                try {
+                    tarefa.run();
+                } finally {
+                    RequestContextHolder.setRequestAttributes(anteriores);
+                }
+            };
+        });
+        return executor;
+    }
+
+    /**
+     * Mantém o executor padrão do Spring Boot (usado pelo MVC assíncrono), que deixaria
+     * de ser criado automaticamente por existir outro Executor no contexto.
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @Primary
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
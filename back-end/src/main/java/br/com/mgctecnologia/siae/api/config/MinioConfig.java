@@ -2,10 +2,13 @@ package br.com.mgctecnologia.siae.api.config;
 
 import io.minio.MinioClient;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+// Só com o armazenamento no MinIO; no modo filesystem as propriedades minio.* não são necessárias
 @Configuration
+@ConditionalOnProperty(name = "siae.storage.tipo", havingValue = "minio", matchIfMissing = true)
 public class MinioConfig {
 
     @Value("${minio.url}")
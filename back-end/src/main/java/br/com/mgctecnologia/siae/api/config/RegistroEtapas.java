@@ -0,0 +1,45 @@
+package br.com.mgctecnologia.siae.api.config;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tempos acumulados por etapa durante uma requisição, no formato do cabeçalho Server-Timing.
+ * Pode receber medições de mais de uma thread (etapas executadas em paralelo).
+ */
+public class RegistroEtapas {
+
+    public static final String ATRIBUTO = RegistroEtapas.class.getName();
+
+    private final long inicio = System.nanoTime();
+    private final Map<String, long[]> etapas = new LinkedHashMap<>();
+
+    public synchronized void adicionar(String nome, long nanos) {
+        long[] acumulado = etapas.computeIfAbsent(nome, n -> new long[2]);
+        acumulado[0] += nanos;
+        acumulado[1]++;
+    }
+
+    public long getInicio() {
+        return inicio;
+    }
+
+    /**
+     * Ex.: "multipart;dur=12.4, cms;dur=35.1, minio-put;dur=80.2;desc=\"2x\", total;dur=140.3"
+     */
+    public synchronized String comoServerTiming() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, long[]> e : etapas.entrySet()) {
+            anexar(sb, e.getKey(), e.getValue()[0], e.getValue()[1]);
+        }
+        anexar(sb, "total", System.nanoTime() - inicio, 1);
+        return sb.toString();
+    }
+
+    private void anexar(StringBuilder sb, String nome, long nanos, long vezes) {
+        if (sb.length() > 0) sb.append(", ");
+        sb.append(nome).append(";dur=").append(String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0));
+        if (vezes > 1) sb.append(";desc=\"").append(vezes).append("x\"");
+    }
+}
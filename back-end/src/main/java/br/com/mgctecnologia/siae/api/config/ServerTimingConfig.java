@@ -0,0 +1,86 @@
+package br.com.mgctecnologia.siae.api.config;
+
+import br.com.mgctecnologia.siae.api.service.TemporizadorEtapas;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.io.IOException;
+
+/**
+ * Cabeçalho Server-Timing: o filtro abre o registro da requisição, o interceptor mede o tempo
+ * até o controller (parsing do multipart) e o advice escreve o cabeçalho antes do corpo.
+ */
+@Configuration
+public class ServerTimingConfig implements WebMvcConfigurer {
+
+    private final TemporizadorEtapas temporizador;
+
+    public ServerTimingConfig(TemporizadorEtapas temporizador) {
+        this.temporizador = temporizador;
+    }
+
+    @Bean
+    public OncePerRequestFilter serverTimingFilter() {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                request.setAttribute(RegistroEtapas.ATRIBUTO, new RegistroEtapas());
+                chain.doFilter(request, response);
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                Object registro = request.getAttribute(RegistroEtapas.ATRIBUTO);
+                String contentType = request.getContentType();
+                if (registro instanceof RegistroEtapas etapas
+                        && contentType != null && contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)) {
+                    // O DispatcherServlet já leu as partes quando chega aqui
+                    temporizador.registrar("multipart", System.nanoTime() - etapas.getInicio());
+                }
+                return true;
+            }
+        });
+    }
+
+    @ControllerAdvice
+    static class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+        @Override
+        public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+            return true;
+        }
+
+        @Override
+        public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                      Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                      ServerHttpRequest request, ServerHttpResponse response) {
+            if (request instanceof ServletServerHttpRequest servletRequest
+                    && servletRequest.getServletRequest().getAttribute(RegistroEtapas.ATRIBUTO) instanceof RegistroEtapas etapas) {
+                response.getHeaders().add("Server-Timing", etapas.comoServerTiming());
+            }
+            return body;
+        }
+    }
+}
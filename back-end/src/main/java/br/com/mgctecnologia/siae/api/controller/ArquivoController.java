@@ -0,0 +1,62 @@
+package br.com.mgctecnologia.siae.api.controller;
+
+import br.com.mgctecnologia.siae.api.storage.FilesystemDocumentStorage;
+import br.com.mgctecnologia.siae.api.storage.InfoObjeto;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Serve os links assinados do armazenamento em disco (o equivalente às URLs pré-assinadas do MinIO).
+ * Só existe com siae.storage.tipo=filesystem.
+ */
+@RestController
+@RequestMapping("/api/arquivos")
+@ConditionalOnProperty(name = "siae.storage.tipo", havingValue = "filesystem")
+public class ArquivoController {
+
+    private final FilesystemDocumentStorage storage;
+
+    public ArquivoController(FilesystemDocumentStorage storage) {
+        this.storage = storage;
+    }
+
+    // GET /api/arquivos?objeto=processo-x/reqPessoa-a.pdf&expira=1718000000&assinatura=...
+    @GetMapping
+    public ResponseEntity<?> baixar(@RequestParam String objeto,
+                                    @RequestParam long expira,
+                                    @RequestParam String assinatura) {
+        if (!storage.linkValido(objeto, expira, assinatura)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Erro: link inválido ou expirado.");
+        }
+        try {
+            Optional<InfoObjeto> info = storage.consultar(objeto);
+            if (info.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Erro: arquivo não encontrado.");
+            }
+            StreamingResponseBody corpo = saida -> {
+                try (InputStream in = storage.ler(objeto, 0, null)) {
+                    in.transferTo(saida);
+                } catch (Exception e) {
+                    throw new RuntimeException("Erro ao ler arquivo: " + e.getMessage());
+                }
+            };
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(info.get().contentType()))
+                    .contentLength(info.get().tamanho())
+                    .header("Content-Disposition", ContentDisposition.inline()
+                            .filename(objeto.substring(objeto.lastIndexOf('/') + 1), StandardCharsets.UTF_8).build().toString())
+                    .body(corpo);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+}
@@ -1,17 +1,48 @@
 package br.com.mgctecnologia.siae.api.controller;
 
+import br.com.mgctecnologia.siae.api.DTO.AssinaturaLoteRequest;
+import br.com.mgctecnologia.siae.api.DTO.FinalizarAssinaturaRequest;
 import br.com.mgctecnologia.siae.api.service.AssinaturaDigitalService;
+import br.com.mgctecnologia.siae.api.service.AssinaturaLoteService;
+import br.com.mgctecnologia.siae.api.service.AssinaturaNdjsonService;
+import br.com.mgctecnologia.siae.api.service.AssinaturaRemotaService;
+import br.com.mgctecnologia.siae.api.service.MinioStorageService;
+import br.com.mgctecnologia.siae.api.service.VerificacaoAssinaturaService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/assinatura")
 public class AssinaturaController {
 
     private final AssinaturaDigitalService assinaturaService;
+    private final AssinaturaLoteService assinaturaLoteService;
+    private final AssinaturaNdjsonService assinaturaNdjsonService;
+    private final AssinaturaRemotaService assinaturaRemotaService;
+    private final MinioStorageService minioService;
+    private final VerificacaoAssinaturaService verificacaoService;
 
-    public AssinaturaController(AssinaturaDigitalService assinaturaService) {
+    public AssinaturaController(AssinaturaDigitalService assinaturaService,
+                                AssinaturaLoteService assinaturaLoteService,
+                                AssinaturaNdjsonService assinaturaNdjsonService,
+                                AssinaturaRemotaService assinaturaRemotaService,
+                                MinioStorageService minioService,
+                                VerificacaoAssinaturaService verificacaoService) {
         this.assinaturaService = assinaturaService;
+        this.assinaturaLoteService = assinaturaLoteService;
+        this.assinaturaNdjsonService = assinaturaNdjsonService;
+        this.assinaturaRemotaService = assinaturaRemotaService;
+        this.minioService = minioService;
+        this.verificacaoService = verificacaoService;
     }
 
     @PostMapping("/assinar")
@@ -26,6 +57,83 @@ public class AssinaturaController {
         }
     }
 
+    // Assina textos em fluxo: POST /api/assinatura/assinar/ndjson, uma linha {"id": ..., "conteudo": "..."} por registro.
+    // A resposta também é NDJSON e sai à medida que cada linha é assinada (sem ecoar o conteúdo).
+    @PostMapping(value = "/assinar/ndjson", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> assinarTextoNdjson(HttpServletRequest request) {
+        if (!assinaturaNdjsonService.certificadoDisponivel()) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN)
+                    .body("Erro: Certificado não configurado no sistema.");
+        }
+
+        StreamingResponseBody corpo = saida -> {
+            try {
+                assinaturaNdjsonService.assinar(request.getInputStream(), saida);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Erro na assinatura em fluxo: " + e.getMessage(), e);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(corpo);
+    }
+
+    // Assina vários PDFs em paralelo: POST /api/assinatura/lote (multipart, campo "arquivos")
+    @PostMapping(value = "/lote", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> assinarLote(@RequestParam("arquivos") List<MultipartFile> arquivos) {
+        try {
+            return ResponseEntity.ok(assinaturaLoteService.assinarArquivos(arquivos));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+
+    // Assina vários anexos já armazenados de um processo: POST /api/assinatura/lote/objetos {"idProcesso": 1, "objetos": [...]}
+    @PostMapping(value = "/lote/objetos", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> assinarLoteObjetos(@RequestBody AssinaturaLoteRequest request) {
+        try {
+            return ResponseEntity.ok(assinaturaLoteService.assinarObjetos(request.getIdProcesso(), request.getObjetos()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+
+    // Assinatura remota, fase 1: POST /api/assinatura/remota/preparar?objeto=processo-x/arquivo.pdf
+    // Retorna { tempId, hashParaAssinar } (SHA-256 em Base64 do intervalo a ser assinado)
+    @PostMapping("/remota/preparar")
+    public ResponseEntity<?> prepararAssinaturaRemota(@RequestParam("objeto") String objeto) {
+        try {
+            return ResponseEntity.ok(assinaturaRemotaService.preparar(objeto));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+
+    // Assinatura remota, fase 2: POST /api/assinatura/remota/finalizar { tempId, assinaturaBase64 (CMS), certificadoBase64 }
+    @PostMapping("/remota/finalizar")
+    public ResponseEntity<?> finalizarAssinaturaRemota(@RequestBody FinalizarAssinaturaRequest request) {
+        try {
+            String objetoAssinado = assinaturaRemotaService.finalizar(request);
+            Map<String, String> resposta = new HashMap<>();
+            resposta.put("objetoAssinado", objetoAssinado);
+            resposta.put("url", minioService.getPresignedUrl(objetoAssinado));
+            return ResponseEntity.ok(resposta);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+
+    // Verifica as assinaturas de um PDF armazenado: GET /api/assinatura/verificar?objeto=processo-x/ASSINADO-arquivo.pdf
+    @GetMapping("/verificar")
+    public ResponseEntity<?> verificar(@RequestParam("objeto") String objeto) {
+        try {
+            return ResponseEntity.ok(verificacaoService.verificarObjeto(objeto));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+
     // --- DTOs Auxiliares (podem ser movidos para pasta DTO) ---
 
     // DTO de Entrada
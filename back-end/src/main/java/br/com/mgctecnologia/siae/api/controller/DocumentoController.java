@@ -0,0 +1,148 @@
+package br.com.mgctecnologia.siae.api.controller;
+
+import br.com.mgctecnologia.siae.api.model.TipoDocumento;
+import br.com.mgctecnologia.siae.api.service.MinioStorageService;
+import br.com.mgctecnologia.siae.api.service.ProcessoDigitalService;
+import br.com.mgctecnologia.siae.api.storage.InfoObjeto;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Download dos anexos pela própria API, em stream: o objeto nunca fica inteiro no heap
+ * (e sai do cache em disco do MinioStorageService quando já foi lido recentemente).
+ * Suporta Range (um intervalo por requisição), ETag/If-None-Match e If-Range, o que permite
+ * retomar downloads e o visualizador de PDF do navegador buscar só as páginas que exibe.
+ */
+@RestController
+@RequestMapping("/processos/{id}/documentos")
+public class DocumentoController {
+
+    private final ProcessoDigitalService processoDigitalService;
+    private final MinioStorageService minioService;
+
+    // Cache privado do navegador: o conteúdo de um objeto não muda sem mudar o ETag
+    @Value("${siae.documentos.cache-segundos:300}")
+    private long cacheSegundos;
+
+    // Público por padrão: proxies podem guardar a resposta, e o ETag garante que a versão está atual
+    @Value("${siae.documentos.cache-publico:true}")
+    private boolean cachePublico;
+
+    public DocumentoController(ProcessoDigitalService processoDigitalService, MinioStorageService minioService) {
+        this.processoDigitalService = processoDigitalService;
+        this.minioService = minioService;
+    }
+
+    // GET /processos/1/documentos/REQ_PESSOA   (aceita Range: bytes=0-65535)
+    @GetMapping("/{tipo}")
+    public ResponseEntity<?> baixar(@PathVariable Long id,
+                                    @PathVariable TipoDocumento tipo,
+                                    @RequestHeader HttpHeaders cabecalhos,
+                                    HttpServletRequest request) {
+        String objeto;
+        InfoObjeto info;
+        try {
+            objeto = processoDigitalService.buscarObjetoDocumento(id, tipo);
+            info = minioService.consultarObjeto(objeto)
+                    .orElseThrow(() -> new EntityNotFoundException("Arquivo do documento não encontrado no armazenamento."));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Erro: " + e.getMessage());
+        }
+
+        long tamanho = info.tamanho();
+        String etag = "\"" + info.etag() + "\"";
+
+        HttpHeaders resposta = new HttpHeaders();
+        resposta.setETag(etag);
+        resposta.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        CacheControl cache = CacheControl.maxAge(Duration.ofSeconds(cacheSegundos));
+        resposta.setCacheControl(cachePublico ? cache.cachePublic() : cache.cachePrivate());
+        if (info.ultimaModificacao() != null) {
+            resposta.setLastModified(info.ultimaModificacao());
+        }
+
+        if (etagConfere(cabecalhos.getIfNoneMatch(), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(resposta).build();
+        }
+
+        long inicio = 0;
+        long fim = tamanho - 1;
+        boolean parcial = false;
+        String range = cabecalhos.getFirst(HttpHeaders.RANGE);
+        if (range != null && rangeAplicavel(cabecalhos.getFirst(HttpHeaders.IF_RANGE), etag)) {
+            try {
+                List<HttpRange> intervalos = HttpRange.parseRanges(range);
+                // Vários intervalos exigiriam multipart/byteranges; nesse caso vai o arquivo inteiro
+                if (intervalos.size() == 1) {
+                    inicio = intervalos.get(0).getRangeStart(tamanho);
+                    fim = intervalos.get(0).getRangeEnd(tamanho);
+                    // Início além do fim do arquivo (ou arquivo vazio): nada a servir
+                    if (inicio >= tamanho || inicio > fim) {
+                        throw new IllegalArgumentException("Intervalo fora do arquivo: " + range);
+                    }
+                    parcial = true;
+                }
+            } catch (IllegalArgumentException e) {
+                resposta.set(HttpHeaders.CONTENT_RANGE, "bytes */" + tamanho);
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(resposta).build();
+            }
+        }
+
+        long comprimento = tamanho == 0 ? 0 : fim - inicio + 1;
+        resposta.setContentLength(comprimento);
+        resposta.setContentType(tipoConteudo(info.contentType()));
+        resposta.setContentDisposition(ContentDisposition.inline()
+                .filename(objeto.substring(objeto.lastIndexOf('/') + 1), StandardCharsets.UTF_8).build());
+        if (parcial) {
+            resposta.set(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + fim + "/" + tamanho);
+        }
+        HttpStatus status = parcial ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK;
+
+        if (HttpMethod.HEAD.matches(request.getMethod()) || comprimento == 0) {
+            return ResponseEntity.status(status).headers(resposta).build();
+        }
+
+        long deslocamento = inicio;
+        Long trecho = parcial ? comprimento : null;
+        StreamingResponseBody corpo = saida -> minioService.transferir(objeto, info, deslocamento, trecho, saida);
+        return ResponseEntity.status(status).headers(resposta).body(corpo);
+    }
+
+    private static boolean etagConfere(List<String> ifNoneMatch, String etag) {
+        for (String candidato : ifNoneMatch) {
+            String valor = candidato.trim();
+            if (valor.equals("*") || valor.equals(etag) || valor.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // If-Range com outro ETag (ou com data, que não comparamos): o cliente tem versão antiga, vai o arquivo inteiro
+    private static boolean rangeAplicavel(String ifRange, String etag) {
+        return ifRange == null || ifRange.trim().equals(etag);
+    }
+
+    private static MediaType tipoConteudo(String contentType) {
+        try {
+            return contentType != null ? MediaType.parseMediaType(contentType) : MediaType.APPLICATION_OCTET_STREAM;
+        } catch (Exception e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+}
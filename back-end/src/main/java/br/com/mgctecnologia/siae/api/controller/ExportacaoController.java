@@ -0,0 +1,67 @@
+package br.com.mgctecnologia.siae.api.controller;
+
+import br.com.mgctecnologia.siae.api.DTO.FiltroProcessoDTO;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.Setor;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.Status;
+import br.com.mgctecnologia.siae.api.service.ExportacaoZipService;
+import br.com.mgctecnologia.siae.api.service.ExportacaoZipService.ItemExportacao;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/processos/exportacao")
+public class ExportacaoController {
+
+    private final ExportacaoZipService exportacaoZipService;
+
+    public ExportacaoController(ExportacaoZipService exportacaoZipService) {
+        this.exportacaoZipService = exportacaoZipService;
+    }
+
+    // Todos os anexos de um processo: GET /processos/exportacao/1
+    @GetMapping("/{id}")
+    public ResponseEntity<?> exportarProcesso(@PathVariable Long id) {
+        try {
+            return zip(exportacaoZipService.listarDoProcesso(id), "processo-" + id + ".zip");
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+
+    // Vários processos: GET /processos/exportacao?aberturaDe=2024-05-01&aberturaAte=2024-05-31&status=Finalizado
+    @GetMapping
+    public ResponseEntity<?> exportar(@RequestParam(required = false) Status status,
+                                      @RequestParam(required = false) Setor setor,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate aberturaDe,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate aberturaAte,
+                                      @RequestParam(required = false) Long idServidor) {
+        FiltroProcessoDTO filtro = new FiltroProcessoDTO();
+        filtro.setStatus(status);
+        filtro.setSetor(setor);
+        filtro.setAberturaDe(aberturaDe);
+        filtro.setAberturaAte(aberturaAte);
+        filtro.setIdServidor(idServidor);
+        try {
+            return zip(exportacaoZipService.listar(filtro), "processos.zip");
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+
+    // O corpo é escrito depois de a requisição liberar a thread; sem Content-Length (tamanho só se conhece no fim)
+    private ResponseEntity<StreamingResponseBody> zip(List<ItemExportacao> itens, String nomeArquivo) {
+        StreamingResponseBody corpo = saida -> exportacaoZipService.escrever(itens, saida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(nomeArquivo).build().toString())
+                .body(corpo);
+    }
+}
@@ -1,9 +1,7 @@
 package br.com.mgctecnologia.siae.api.controller;
 
-import io.minio.MinioClient;
-import io.minio.BucketExistsArgs;
+import br.com.mgctecnologia.siae.api.storage.DocumentStorage;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -23,18 +21,9 @@ public class HealthCheckController {
     @Autowired
     private DataSource dataSource;
 
-    // Injeo baseada no seu application.properties
-    @Value("${minio.url}")
-    private String minioUrl;
-
-    @Value("${minio.access.key}")
-    private String minioAccessKey;
-
-    @Value("${minio.secret.key}")
-    private String minioSecretKey;
-
-    @Value("${minio.bucket.name}")
-    private String minioBucketName;
+    // Armazenamento configurado (MinIO ou disco local)
+    @Autowired
+    private DocumentStorage storage;
 
     @GetMapping
     public ResponseEntity<Map<String, ServiceStatus>> checkStatus() {
@@ -43,8 +32,8 @@ public class HealthCheckController {
         // Verifica Banco (usa o DataSource j configurado na porta 5433)
         statusMap.put("database", checkPostgres());
 
-        // Verifica MinIO (usa as configs injetadas)
-        statusMap.put("minio", checkMinio());
+        // Verifica o armazenamento (a chave "minio"  a que o painel l, qualquer que seja o backend)
+        statusMap.put("minio", checkStorage());
 
         return ResponseEntity.ok(statusMap);
     }
@@ -61,22 +50,13 @@ public class HealthCheckController {
         return new ServiceStatus("PostgreSQL", "Offline", "localhost:5433", false);
     }
 
-    private ServiceStatus checkMinio() {
+    private ServiceStatus checkStorage() {
         try {
-            // Constri o cliente manualmente para este teste
-            MinioClient minioClient = MinioClient.builder()
-                    .endpoint(minioUrl)
-                    .credentials(minioAccessKey, minioSecretKey)
-                    .build();
-
-            // Teste real: Verifica se o bucket configurado existe
-            boolean found = minioClient.bucketExists(BucketExistsArgs.builder().bucket(minioBucketName).build());
-
-            String msg = found ? "Online (Bucket '" + minioBucketName + "' encontrado)" : "Online (Bucket no encontrado)";
-            return new ServiceStatus("MinIO Storage", msg, minioUrl, true);
-
+            boolean disponivel = storage.disponivel();
+            String msg = disponivel ? "Online" : "Online (bucket/diretrio no encontrado)";
+            return new ServiceStatus("Armazenamento", msg, storage.descricao(), true);
         } catch (Exception e) {
-            return new ServiceStatus("MinIO Storage", "Offline / Erro de Conexo", minioUrl, false);
+            return new ServiceStatus("Armazenamento", "Offline / Erro de Conexo", storage.descricao(), false);
         }
     }
 
@@ -0,0 +1,40 @@
+package br.com.mgctecnologia.siae.api.controller;
+
+import br.com.mgctecnologia.siae.api.DTO.JobAssinaturaDTO;
+import br.com.mgctecnologia.siae.api.service.JobAssinaturaService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/assinatura/jobs")
+public class JobAssinaturaController {
+
+    private final JobAssinaturaService jobAssinaturaService;
+
+    public JobAssinaturaController(JobAssinaturaService jobAssinaturaService) {
+        this.jobAssinaturaService = jobAssinaturaService;
+    }
+
+    // Polling do status: GET /api/assinatura/jobs/{id}
+    @GetMapping("/{id}")
+    public ResponseEntity<JobAssinaturaDTO> buscarPorId(@PathVariable Long id) {
+        return ResponseEntity.ok(jobAssinaturaService.buscarPorId(id));
+    }
+
+    // Todos os jobs de um processo: GET /api/assinatura/jobs?processo=1
+    @GetMapping
+    public ResponseEntity<List<JobAssinaturaDTO>> listarPorProcesso(@RequestParam("processo") Long idProcesso) {
+        return ResponseEntity.ok(jobAssinaturaService.listarPorProcesso(idProcesso));
+    }
+
+    // Acompanhamento em tempo real (Server-Sent Events): GET /api/assinatura/jobs/{id}/eventos
+    @GetMapping(value = "/{id}/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter acompanhar(@PathVariable Long id) throws IOException {
+        return jobAssinaturaService.inscrever(id);
+    }
+}
@@ -2,13 +2,17 @@ package br.com.mgctecnologia.siae.api.controller;
 
 import br.com.mgctecnologia.siae.api.DTO.*;
 import br.com.mgctecnologia.siae.api.model.ProcessoDigital.ProcessoDigital;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.Setor;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.Status;
 import br.com.mgctecnologia.siae.api.service.ProcessoDigitalService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -26,12 +30,93 @@ public class ProcessoDigitalController {
         return new ResponseEntity<>(novoProcesso, HttpStatus.CREATED);
     }
 
+    // Variante assíncrona: POST /processos?assincrono=true
+    // Responde 202 com os jobs de assinatura; acompanhe em /api/assinatura/jobs/{id}
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE, params = "assincrono=true")
+    public ResponseEntity<ProcessoAssincronoResponseDTO> criarProcessoAssincrono(
+            @ModelAttribute ProcessoDigitalDTO dto) {
+
+        ProcessoAssincronoResponseDTO resposta = processoDigitalService.criarNovoProcessoAssincrono(dto);
+        return ResponseEntity.accepted().body(resposta);
+    }
+
     @GetMapping
     public ResponseEntity<List<ProcessoDigitalResponseDTO>> listarTodos() {
         List<ProcessoDigitalResponseDTO> lista = processoDigitalService.listarTodos();
         return ResponseEntity.ok(lista);
     }
 
+    // Lista enxuta para as telas de listagem: só flags de quais anexos existem, sem URLs
+    @GetMapping("/resumo")
+    public ResponseEntity<List<ProcessoResumoDTO>> listarResumo() {
+        return ResponseEntity.ok(processoDigitalService.listarResumo());
+    }
+
+    // Listagem paginada: GET /processos/pagina?status=Finalizado&aberturaDe=2024-01-01&tamanho=50
+    // A próxima página vem com ?cursor=<proximoCursor> e os mesmos filtros
+    @GetMapping("/pagina")
+    public ResponseEntity<?> listarPagina(
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) Setor setor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate aberturaDe,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate aberturaAte,
+            @RequestParam(required = false) Long idServidor,
+            @RequestParam(required = false) OrdemProcesso ordem,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int tamanho) {
+
+        FiltroProcessoDTO filtro = new FiltroProcessoDTO();
+        filtro.setStatus(status);
+        filtro.setSetor(setor);
+        filtro.setAberturaDe(aberturaDe);
+        filtro.setAberturaAte(aberturaAte);
+        filtro.setIdServidor(idServidor);
+        try {
+            return ResponseEntity.ok(processoDigitalService.listarPagina(filtro, ordem, cursor, tamanho));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+
+    // Busca textual por relevância: GET /processos/busca?q=licença maternidade&status=Finalizado&pagina=0
+    @GetMapping("/busca")
+    public ResponseEntity<?> buscarTexto(
+            @RequestParam String q,
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) Setor setor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate aberturaDe,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate aberturaAte,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "20") int tamanho) {
+
+        FiltroProcessoDTO filtro = new FiltroProcessoDTO();
+        filtro.setStatus(status);
+        filtro.setSetor(setor);
+        filtro.setAberturaDe(aberturaDe);
+        filtro.setAberturaAte(aberturaAte);
+        try {
+            return ResponseEntity.ok(processoDigitalService.buscarTexto(q, filtro, pagina, tamanho));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+
+    // Links dos anexos sob demanda, ao abrir o detalhe: GET /processos/1/links
+    @GetMapping("/{id}/links")
+    public ResponseEntity<DocsAnexadosResponseDTO> buscarLinks(@PathVariable Long id) {
+        return ResponseEntity.ok(processoDigitalService.buscarLinks(id));
+    }
+
+    // Links de vários processos de uma vez: GET /processos/links?ids=1,2,3
+    @GetMapping("/links")
+    public ResponseEntity<?> buscarLinks(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(processoDigitalService.buscarLinks(ids));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+
     // GET: Buscar por ID Específico
     // URL: http://localhost:8080/processos/1
     @GetMapping("/{id}")
@@ -58,6 +143,14 @@ public class ProcessoDigitalController {
         return ResponseEntity.ok(processoAtualizado);
     }
 
+    @PutMapping(value = "/{id}/transferencia", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, params = "assincrono=true")
+    public ResponseEntity<ProcessoAssincronoResponseDTO> transferirSetorAssincrono(
+            @PathVariable Long id,
+            @ModelAttribute TransferenciaSetorDTO dto) {
+
+        return ResponseEntity.accepted().body(processoDigitalService.transferirProcessoAssincrono(id, dto));
+    }
+
     @PutMapping(value = "/{id}/finalizar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<ProcessoDigitalResponseDTO> finalizarProcesso(
             @PathVariable Long id,
@@ -67,6 +160,14 @@ public class ProcessoDigitalController {
         return ResponseEntity.ok(processoFinalizado);
     }
 
+    @PutMapping(value = "/{id}/finalizar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, params = "assincrono=true")
+    public ResponseEntity<ProcessoAssincronoResponseDTO> finalizarProcessoAssincrono(
+            @PathVariable Long id,
+            @ModelAttribute FinalizarProcessoDTO dto) {
+
+        return ResponseEntity.accepted().body(processoDigitalService.finalizarProcessoAssincrono(id, dto));
+    }
+
     @PutMapping(value = "/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<ProcessoDigitalResponseDTO> atualizarProcesso(
             @PathVariable Long id,
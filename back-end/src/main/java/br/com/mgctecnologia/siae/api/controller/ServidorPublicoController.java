@@ -17,11 +17,16 @@ public class ServidorPublicoController {
     @Autowired
     private ServidorPublicoService servidorPublicoService;
 
-    // Endpoints de busca existentes...
+    // Autocomplete: GET /servidor-publico/buscar?nome=joao&limite=10 (sem acentos/caixa, mais parecidos primeiro)
     @GetMapping("/buscar")
-    public ResponseEntity<List<ServidorPublicoDTO>> buscarPorNome(@RequestParam("nome") String nomeCompleto) {
-        List<ServidorPublicoDTO> resultado = servidorPublicoService.buscarLikeNome(nomeCompleto);
-        return ResponseEntity.ok(resultado);
+    public ResponseEntity<?> buscarPorNome(@RequestParam("nome") String nomeCompleto,
+                                           @RequestParam(defaultValue = "10") int limite) {
+        try {
+            List<ServidorPublicoDTO> resultado = servidorPublicoService.buscarPorNome(nomeCompleto, limite);
+            return ResponseEntity.ok(resultado);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
     }
 
     @GetMapping
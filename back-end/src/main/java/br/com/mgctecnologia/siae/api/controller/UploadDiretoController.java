@@ -0,0 +1,43 @@
+package br.com.mgctecnologia.siae.api.controller;
+
+import br.com.mgctecnologia.siae.api.model.TipoDocumento;
+import br.com.mgctecnologia.siae.api.service.UploadDiretoService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/processos/{id}/uploads")
+public class UploadDiretoController {
+
+    private final UploadDiretoService uploadDiretoService;
+
+    public UploadDiretoController(UploadDiretoService uploadDiretoService) {
+        this.uploadDiretoService = uploadDiretoService;
+    }
+
+    // Passo 1: POST /processos/1/uploads/REQ_PESSOA?nomeArquivo=requerimento.pdf&contentType=application/pdf
+    // Retorna { objeto, url, campos, tamanhoMaximo, expiraEm } para o navegador enviar direto ao MinIO
+    @PostMapping("/{tipo}")
+    public ResponseEntity<?> autorizar(@PathVariable Long id,
+                                       @PathVariable TipoDocumento tipo,
+                                       @RequestParam("nomeArquivo") String nomeArquivo,
+                                       @RequestParam(value = "contentType", required = false) String contentType) {
+        try {
+            return ResponseEntity.ok(uploadDiretoService.autorizar(id, tipo, nomeArquivo, contentType));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+
+    // Passo 2, depois do upload: POST /processos/1/uploads/REQ_PESSOA/confirmar?objeto=processo-x/reqPessoa-requerimento.pdf
+    @PostMapping("/{tipo}/confirmar")
+    public ResponseEntity<?> confirmar(@PathVariable Long id,
+                                       @PathVariable TipoDocumento tipo,
+                                       @RequestParam("objeto") String objeto) {
+        try {
+            return ResponseEntity.ok(uploadDiretoService.confirmar(id, tipo, objeto));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package br.com.mgctecnologia.siae.api.controller;
+
+import br.com.mgctecnologia.siae.api.DTO.CriarSessaoUploadRequest;
+import br.com.mgctecnologia.siae.api.service.UploadResumivelService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/uploads")
+public class UploadResumivelController {
+
+    private final UploadResumivelService uploadResumivelService;
+
+    public UploadResumivelController(UploadResumivelService uploadResumivelService) {
+        this.uploadResumivelService = uploadResumivelService;
+    }
+
+    // Abre a sessão: POST /api/uploads { idProcesso, tipo, nomeArquivo, contentType, tamanhoTotal, tamanhoParte }
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> criar(@RequestBody CriarSessaoUploadRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(uploadResumivelService.criar(request));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+
+    // Envia a parte N (corpo binário): PUT /api/uploads/{id}/partes/3
+    @PutMapping(value = "/{id}/partes/{numero}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> enviarParte(@PathVariable String id, @PathVariable int numero, HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(uploadResumivelService.receberParte(
+                    id, numero, request.getInputStream(), request.getContentLengthLong()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+
+    // Partes e faixas de bytes já recebidas, para retomar: GET /api/uploads/{id}
+    @GetMapping("/{id}")
+    public ResponseEntity<?> status(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(uploadResumivelService.status(id));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+
+    // Junta as partes e anexa ao processo (ou agenda a assinatura): POST /api/uploads/{id}/concluir
+    @PostMapping("/{id}/concluir")
+    public ResponseEntity<?> concluir(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(uploadResumivelService.concluir(id));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancelar(@PathVariable String id) {
+        try {
+            uploadResumivelService.cancelar(id);
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Erro: " + e.getMessage());
+        }
+    }
+}
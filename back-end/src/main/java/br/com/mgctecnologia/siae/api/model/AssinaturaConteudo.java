@@ -0,0 +1,33 @@
+package br.com.mgctecnologia.siae.api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resultado já conhecido da assinatura de um conteúdo: o mesmo PDF assinado com o mesmo
+ * certificado reaproveita o blob assinado em vez de gerar outra assinatura.
+ */
+@Entity
+@Table(name = "assinatura_conteudo", uniqueConstraints = @UniqueConstraint(
+        name = "uk_assinatura_conteudo_original", columnNames = {"sha256_original", "versao_certificado"}))
+@Data
+public class AssinaturaConteudo {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sha256_original", nullable = false, length = 64)
+    private String sha256Original;
+
+    // Data de modificação do PFX configurado quando a assinatura foi gerada
+    @Column(name = "versao_certificado", nullable = false)
+    private Long versaoCertificado;
+
+    @Column(name = "sha256_assinado", nullable = false, length = 64)
+    private String sha256Assinado;
+
+    private LocalDateTime dataCriacao;
+}
@@ -0,0 +1,34 @@
+package br.com.mgctecnologia.siae.api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Conteúdo armazenado uma única vez no MinIO, endereçado pelo SHA-256 (blobs/ab/abcdef...).
+ * {@code referencias} conta quantos anexos apontam para ele; com zero, o coletor o remove.
+ */
+@Entity
+@Table(name = "blob_conteudo", indexes = @Index(name = "idx_blob_conteudo_objeto", columnList = "objeto", unique = true))
+@Data
+public class BlobConteudo {
+
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(nullable = false, length = 512)
+    private String objeto;
+
+    private Long tamanho;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(nullable = false)
+    private Integer referencias;
+
+    private LocalDateTime dataCriacao;
+    private LocalDateTime dataAtualizacao;
+}
@@ -0,0 +1,59 @@
+package br.com.mgctecnologia.siae.api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Assinatura de um anexo executada fora da requisição: o arquivo original fica em disco
+ * até o worker assinar, enviar ao MinIO e vincular o objeto em {@link DocsAnexados}.
+ */
+@Entity
+@Table(name = "job_assinatura", indexes = @Index(name = "idx_job_assinatura_status", columnList = "status"))
+@Data
+public class JobAssinatura {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "id_processo", nullable = false)
+    private Long idProcesso;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo_documento", nullable = false, length = 30)
+    private TipoDocumento tipoDocumento;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatusJobAssinatura status = StatusJobAssinatura.PENDENTE;
+
+    // Caminho final no MinIO
+    @Column(name = "objeto_destino", nullable = false, length = 512)
+    private String objetoDestino;
+
+    // Cópia local do arquivo enviado, removida quando o job termina
+    @Column(name = "arquivo_temporario", length = 512)
+    private String arquivoTemporario;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(length = 1000)
+    private String erro;
+
+    private LocalDateTime dataCriacao;
+    private LocalDateTime dataAtualizacao;
+
+    @PrePersist
+    public void prePersist() {
+        this.dataCriacao = LocalDateTime.now();
+        this.dataAtualizacao = this.dataCriacao;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.dataAtualizacao = LocalDateTime.now();
+    }
+}
@@ -10,11 +10,29 @@ import java.io.Serializable;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "processo_digital")
+// Índices na ordem dos filtros da listagem paginada: igualdade primeiro, depois as colunas do keyset
+@Table(name = "processo_digital", indexes = {
+        @Index(name = "idx_processo_abertura", columnList = "data_abertura, id_processo"),
+        @Index(name = "idx_processo_status_abertura", columnList = "status, data_abertura, id_processo"),
+        @Index(name = "idx_processo_setor_abertura", columnList = "setor_destino, data_abertura, id_processo"),
+        @Index(name = "idx_processo_servidor_abertura", columnList = "id_servidor, data_abertura, id_processo"),
+        @Index(name = "idx_processo_status_id", columnList = "status, id_processo"),
+        @Index(name = "idx_processo_setor_id", columnList = "setor_destino, id_processo"),
+        @Index(name = "idx_processo_servidor_id", columnList = "id_servidor, id_processo")
+})
+@NamedEntityGraph(name = ProcessoDigital.GRAFO_ANEXOS, attributeNodes = @NamedAttributeNode("docsAnexados"))
+@NamedEntityGraph(name = ProcessoDigital.GRAFO_COMPLETO, attributeNodes = {
+        @NamedAttributeNode("docsAnexados"),
+        @NamedAttributeNode("servidorPublico")
+})
 @Data
 @Audited
 public class ProcessoDigital implements Serializable {
 
+    // Planos de carga: as associações continuam LAZY e cada consulta diz o que precisa vir junto
+    public static final String GRAFO_ANEXOS = "ProcessoDigital.anexos";
+    public static final String GRAFO_COMPLETO = "ProcessoDigital.completo";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id_processo;
@@ -0,0 +1,72 @@
+package br.com.mgctecnologia.siae.api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Upload retomável de um anexo: as partes ficam no MinIO (uploads/{id}/parte-NNNNN) até a
+ * conclusão. O que já chegou é sempre lido do próprio MinIO, então a sessão sobrevive a reinícios.
+ */
+@Entity
+@Table(name = "sessao_upload")
+@Data
+public class SessaoUpload {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "id_processo", nullable = false)
+    private Long idProcesso;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo_documento", nullable = false, length = 30)
+    private TipoDocumento tipoDocumento;
+
+    @Column(name = "nome_arquivo", nullable = false, length = 255)
+    private String nomeArquivo;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "tamanho_total", nullable = false)
+    private Long tamanhoTotal;
+
+    @Column(name = "tamanho_parte", nullable = false)
+    private Long tamanhoParte;
+
+    // Objeto final (ou destino do job de assinatura), preenchido na conclusão
+    @Column(name = "objeto_final", length = 512)
+    private String objetoFinal;
+
+    @Column(name = "id_job")
+    private Long idJob;
+
+    private LocalDateTime dataCriacao;
+    private LocalDateTime dataAtualizacao;
+    private LocalDateTime dataConclusao;
+
+    public int getTotalPartes() {
+        return (int) ((tamanhoTotal + tamanhoParte - 1) / tamanhoParte);
+    }
+
+    /**
+     * Tamanho esperado da parte (1..total): todas iguais, menos a última.
+     */
+    public long tamanhoDaParte(int numero) {
+        return numero < getTotalPartes() ? tamanhoParte : tamanhoTotal - (long) (getTotalPartes() - 1) * tamanhoParte;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        this.dataCriacao = LocalDateTime.now();
+        this.dataAtualizacao = this.dataCriacao;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.dataAtualizacao = LocalDateTime.now();
+    }
+}
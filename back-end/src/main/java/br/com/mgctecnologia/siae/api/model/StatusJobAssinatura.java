@@ -0,0 +1,9 @@
+package br.com.mgctecnologia.siae.api.model;
+
+public enum StatusJobAssinatura {
+
+    PENDENTE,
+    EM_EXECUCAO,
+    CONCLUIDO,
+    ERRO
+}
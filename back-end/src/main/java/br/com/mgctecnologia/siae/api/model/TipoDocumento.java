@@ -0,0 +1,49 @@
+package br.com.mgctecnologia.siae.api.model;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Cada anexo possível de um processo, ligado à coluna correspondente de {@link DocsAnexados}.
+ */
+public enum TipoDocumento {
+
+    REQ_PESSOA("reqPessoa", false, DocsAnexados::getReqPessoa, DocsAnexados::setReqPessoa),
+    MEM_SOLICITACAO_JUR("memSolicitacaoJur", true, DocsAnexados::getMemSolicitacaoJur, DocsAnexados::setMemSolicitacaoJur),
+    PARECER_JURIDICO("parecerJuridico", true, DocsAnexados::getParecerJuridico, DocsAnexados::setParecerJuridico),
+    REQ_DEC_PREFEITO("reqDecPrefeito", false, DocsAnexados::getReqDecPrefeito, DocsAnexados::setReqDecPrefeito),
+    DECISAO_PREF("decisaoPref", true, DocsAnexados::getDecisaoPref, DocsAnexados::setDecisaoPref),
+    OUTROS("outros", false, DocsAnexados::getOutros, DocsAnexados::setOutros),
+    MEMORANDO_PREF("memorandoPref", true, DocsAnexados::getMemorandoPref, DocsAnexados::setMemorandoPref);
+
+    private final String campo;
+    private final boolean exigeAssinatura;
+    private final Function<DocsAnexados, String> leitor;
+    private final BiConsumer<DocsAnexados, String> escritor;
+
+    TipoDocumento(String campo, boolean exigeAssinatura, Function<DocsAnexados, String> leitor, BiConsumer<DocsAnexados, String> escritor) {
+        this.campo = campo;
+        this.exigeAssinatura = exigeAssinatura;
+        this.leitor = leitor;
+        this.escritor = escritor;
+    }
+
+    /**
+     * Nome do campo no DTO/entidade, usado também como prefixo do nome do objeto (ex.: "reqPessoa-arquivo.pdf").
+     */
+    public String getCampo() {
+        return campo;
+    }
+
+    public boolean isExigeAssinatura() {
+        return exigeAssinatura;
+    }
+
+    public String obter(DocsAnexados docs) {
+        return docs == null ? null : leitor.apply(docs);
+    }
+
+    public void definir(DocsAnexados docs, String objectName) {
+        escritor.accept(docs, objectName);
+    }
+}
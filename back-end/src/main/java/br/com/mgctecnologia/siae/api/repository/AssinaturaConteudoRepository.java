@@ -0,0 +1,13 @@
+package br.com.mgctecnologia.siae.api.repository;
+
+import br.com.mgctecnologia.siae.api.model.AssinaturaConteudo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AssinaturaConteudoRepository extends JpaRepository<AssinaturaConteudo, Long> {
+
+    Optional<AssinaturaConteudo> findBySha256OriginalAndVersaoCertificado(String sha256Original, Long versaoCertificado);
+}
@@ -0,0 +1,49 @@
+package br.com.mgctecnologia.siae.api.repository;
+
+import br.com.mgctecnologia.siae.api.model.BlobConteudo;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BlobConteudoRepository extends JpaRepository<BlobConteudo, String> {
+
+    // Conteúdo já armazenado: só mais uma referência (nenhum byte enviado)
+    @Transactional
+    @Modifying
+    @Query("update BlobConteudo b set b.referencias = b.referencias + 1, b.dataAtualizacao = :agora where b.sha256 = :sha")
+    int incrementar(@Param("sha") String sha256, @Param("agora") LocalDateTime agora);
+
+    // Upsert: dois uploads simultâneos do mesmo conteúdo terminam em uma linha com duas referências
+    @Transactional
+    @Modifying
+    @Query(value = "insert into blob_conteudo (sha256, objeto, tamanho, content_type, referencias, data_criacao, data_atualizacao) "
+            + "values (:sha, :objeto, :tamanho, :contentType, 1, :agora, :agora) "
+            + "on conflict (sha256) do update set referencias = blob_conteudo.referencias + 1, data_atualizacao = :agora",
+            nativeQuery = true)
+    int inserirOuIncrementar(@Param("sha") String sha256, @Param("objeto") String objeto, @Param("tamanho") long tamanho,
+                             @Param("contentType") String contentType, @Param("agora") LocalDateTime agora);
+
+    @Transactional
+    @Modifying
+    @Query("update BlobConteudo b set b.referencias = b.referencias - 1, b.dataAtualizacao = :agora "
+            + "where b.objeto = :objeto and b.referencias > 0")
+    int decrementar(@Param("objeto") String objeto, @Param("agora") LocalDateTime agora);
+
+    @Query("select b.sha256 from BlobConteudo b where b.referencias <= 0 and b.dataAtualizacao < :limite")
+    List<String> findSemReferencia(@Param("limite") LocalDateTime limite);
+
+    // Trava a linha durante a coleta, para um incremento concorrente esperar a remoção terminar
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from BlobConteudo b where b.sha256 = :sha")
+    Optional<BlobConteudo> travar(@Param("sha") String sha256);
+}
@@ -0,0 +1,31 @@
+package br.com.mgctecnologia.siae.api.repository;
+
+import br.com.mgctecnologia.siae.api.model.JobAssinatura;
+import br.com.mgctecnologia.siae.api.model.StatusJobAssinatura;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface JobAssinaturaRepository extends JpaRepository<JobAssinatura, Long> {
+
+    List<JobAssinatura> findByIdProcessoOrderByIdAsc(Long idProcesso);
+
+    List<JobAssinatura> findByStatusAndDataAtualizacaoBeforeOrderByIdAsc(StatusJobAssinatura status, LocalDateTime limite);
+
+    // Troca de status condicional: só um worker consegue "pegar" o job
+    @Modifying
+    @Query("update JobAssinatura j set j.status = :novo, j.dataAtualizacao = :agora where j.id = :id and j.status = :atual")
+    int alterarStatus(@Param("id") Long id, @Param("atual") StatusJobAssinatura atual,
+                      @Param("novo") StatusJobAssinatura novo, @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("update JobAssinatura j set j.status = :novo, j.dataAtualizacao = :agora where j.status = :atual")
+    int alterarStatusDeTodos(@Param("atual") StatusJobAssinatura atual,
+                             @Param("novo") StatusJobAssinatura novo, @Param("agora") LocalDateTime agora);
+}
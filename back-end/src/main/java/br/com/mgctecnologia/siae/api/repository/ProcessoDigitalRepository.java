@@ -1,9 +1,42 @@
 package br.com.mgctecnologia.siae.api.repository;
 
 import br.com.mgctecnologia.siae.api.model.ProcessoDigital.ProcessoDigital;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface ProcessoDigitalRepository extends JpaRepository<ProcessoDigital, Long> {
+public interface ProcessoDigitalRepository extends JpaRepository<ProcessoDigital, Long>, ProcessoDigitalRepositoryCustom {
+
+    // Colunas das listagens em um SELECT só (sem 1 + 2N consultas pelas associações LAZY)
+    @Query("select new br.com.mgctecnologia.siae.api.repository.ProcessoListagem("
+            + "p.id_processo, s.nomeCompleto, s.telefone, p.dataAbertura, p.estimativa, p.dataPrevisao, "
+            + "p.dataFechamento, p.setor, p.status, p.assunto, d.id_docs, d.reqPessoa, d.memSolicitacaoJur, "
+            + "d.parecerJuridico, d.reqDecPrefeito, d.decisaoPref, d.outros, d.memorandoPref) "
+            + "from ProcessoDigital p left join p.servidorPublico s left join p.docsAnexados d "
+            + "order by p.id_processo")
+    List<ProcessoListagem> listarProjecao();
+
+    // Processo com servidor e anexos (detalhe)
+    @EntityGraph(ProcessoDigital.GRAFO_COMPLETO)
+    @Query("select p from ProcessoDigital p where p.id_processo = :id")
+    Optional<ProcessoDigital> buscarCompleto(@Param("id") Long id);
+
+    // Vários processos com os anexos (links em lote)
+    @EntityGraph(ProcessoDigital.GRAFO_ANEXOS)
+    @Query("select p from ProcessoDigital p where p.id_processo in :ids")
+    List<ProcessoDigital> buscarComAnexos(@Param("ids") Collection<Long> ids);
+
+    // Trava a linha do processo: jobs concorrentes do mesmo processo gravam os anexos um de cada vez
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from ProcessoDigital p where p.id_processo = :id")
+    Optional<ProcessoDigital> travar(@Param("id") Long id);
 }
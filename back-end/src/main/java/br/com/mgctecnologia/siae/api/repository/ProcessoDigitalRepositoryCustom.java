@@ -0,0 +1,35 @@
+package br.com.mgctecnologia.siae.api.repository;
+
+import br.com.mgctecnologia.siae.api.DTO.FiltroProcessoDTO;
+import br.com.mgctecnologia.siae.api.DTO.OrdemProcesso;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.ProcessoDigital;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Consultas com filtros dinâmicos (Criteria e SQL nativo), implementadas em {@link ProcessoDigitalRepositoryImpl}.
+ */
+public interface ProcessoDigitalRepositoryCustom {
+
+    /** Último item da página anterior; a próxima página começa logo depois dele. */
+    record Cursor(LocalDate dataAbertura, long id) {}
+
+    /**
+     * Processos que atendem ao filtro, em ordem de id, já com os anexos carregados (um único SELECT).
+     */
+    List<ProcessoDigital> buscarComAnexos(FiltroProcessoDTO filtro, int limite);
+
+    /**
+     * Página por keyset (seek): em vez de OFFSET, filtra o que vem depois do cursor, então a
+     * página 500 custa o mesmo que a primeira. Servidor e anexos vêm no mesmo SELECT.
+     */
+    List<ProcessoDigital> buscarPagina(FiltroProcessoDTO filtro, OrdemProcesso ordem, Cursor apos, int limite);
+
+    /**
+     * Busca textual (PostgreSQL, índice GIN sobre processo_digital.busca) no assunto e no nome do
+     * beneficiado, sem diferenciar acentos, em ordem de relevância. Os filtros de {@code filtro}
+     * também se aplicam. Colunas da listagem no mesmo SELECT.
+     */
+    List<ProcessoListagem> buscarTexto(String consulta, FiltroProcessoDTO filtro, int deslocamento, int limite);
+}
@@ -0,0 +1,163 @@
+package br.com.mgctecnologia.siae.api.repository;
+
+import br.com.mgctecnologia.siae.api.DTO.FiltroProcessoDTO;
+import br.com.mgctecnologia.siae.api.DTO.OrdemProcesso;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.ProcessoDigital;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.Setor;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.Status;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProcessoDigitalRepositoryImpl implements ProcessoDigitalRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProcessoDigital> buscarComAnexos(FiltroProcessoDTO filtro, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProcessoDigital> query = cb.createQuery(ProcessoDigital.class);
+        Root<ProcessoDigital> processo = query.from(ProcessoDigital.class);
+        processo.fetch("docsAnexados", JoinType.LEFT);
+
+        query.select(processo)
+                .where(predicados(cb, processo, filtro).toArray(new Predicate[0]))
+                .orderBy(cb.asc(processo.get("id_processo")));
+        return entityManager.createQuery(query).setMaxResults(limite).getResultList();
+    }
+
+    @Override
+    public List<ProcessoDigital> buscarPagina(FiltroProcessoDTO filtro, OrdemProcesso ordem, Cursor apos, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProcessoDigital> query = cb.createQuery(ProcessoDigital.class);
+        Root<ProcessoDigital> processo = query.from(ProcessoDigital.class);
+        processo.fetch("docsAnexados", JoinType.LEFT);
+        processo.fetch("servidorPublico", JoinType.LEFT);
+
+        Path<Long> id = processo.get("id_processo");
+        Path<LocalDate> abertura = processo.get("dataAbertura");
+        List<Predicate> predicados = predicados(cb, processo, filtro);
+
+        if (ordem == OrdemProcesso.ABERTURA) {
+            if (apos != null) {
+                // (abertura, id) < (abertura do cursor, id do cursor)
+                predicados.add(cb.or(
+                        cb.lessThan(abertura, apos.dataAbertura()),
+                        cb.and(cb.equal(abertura, apos.dataAbertura()), cb.lessThan(id, apos.id()))));
+            }
+            query.orderBy(cb.desc(abertura), cb.desc(id));
+        } else {
+            if (apos != null) {
+                predicados.add(cb.lessThan(id, apos.id()));
+            }
+            query.orderBy(cb.desc(id));
+        }
+
+        query.select(processo).where(predicados.toArray(new Predicate[0]));
+        return entityManager.createQuery(query).setMaxResults(limite).getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ProcessoListagem> buscarTexto(String consulta, FiltroProcessoDTO filtro, int deslocamento, int limite) {
+        // websearch_to_tsquery aceita a digitação livre do usuário ("termo", -exclusão, or) sem erro de sintaxe
+        StringBuilder sql = new StringBuilder("""
+                select p.id_processo, s.nome_completo, s.telefone, p.data_abertura, p.estimativa,
+                       p.data_previsao, p.data_fechamento, p.setor_destino, p.status, p.assunto,
+                       d.id_docs, d.req_pessoa, d.mem_solicitacao_jur, d.parecer_juridico,
+                       d.req_dec_prefeito, d.decisao_pref, d.outros, d.memorando_pref
+                from processo_digital p
+                left join dados_servidor s on s.id_servidor = p.id_servidor
+                left join docs_anexo d on d.id_docs = p.id_docs
+                cross join websearch_to_tsquery('portuguese', siae_unaccent(:consulta)) q
+                where p.busca @@ q""");
+        Map<String, Object> parametros = new LinkedHashMap<>();
+        parametros.put("consulta", consulta);
+        if (filtro != null) {
+            if (filtro.getStatus() != null) {
+                sql.append(" and p.status = :status");
+                parametros.put("status", filtro.getStatus().name());
+            }
+            if (filtro.getSetor() != null) {
+                sql.append(" and p.setor_destino = :setor");
+                parametros.put("setor", filtro.getSetor().name());
+            }
+            if (filtro.getAberturaDe() != null) {
+                sql.append(" and p.data_abertura >= :aberturaDe");
+                parametros.put("aberturaDe", filtro.getAberturaDe());
+            }
+            if (filtro.getAberturaAte() != null) {
+                sql.append(" and p.data_abertura <= :aberturaAte");
+                parametros.put("aberturaAte", filtro.getAberturaAte());
+            }
+            if (filtro.getIdServidor() != null) {
+                sql.append(" and p.id_servidor = :idServidor");
+                parametros.put("idServidor", filtro.getIdServidor());
+            }
+        }
+        sql.append(" order by ts_rank_cd(p.busca, q) desc, p.id_processo desc");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        parametros.forEach(query::setParameter);
+        List<Object[]> linhas = query.setFirstResult(deslocamento).setMaxResults(limite).getResultList();
+
+        List<ProcessoListagem> resultado = new ArrayList<>(linhas.size());
+        for (Object[] l : linhas) {
+            resultado.add(new ProcessoListagem(
+                    numero(l[0]), (String) l[1], (String) l[2], data(l[3]),
+                    l[4] != null ? ((Number) l[4]).intValue() : null, data(l[5]), data(l[6]),
+                    l[7] != null ? Setor.valueOf((String) l[7]) : null,
+                    l[8] != null ? Status.valueOf((String) l[8]) : null,
+                    (String) l[9], numero(l[10]), (String) l[11], (String) l[12], (String) l[13],
+                    (String) l[14], (String) l[15], (String) l[16], (String) l[17]));
+        }
+        return resultado;
+    }
+
+    private static Long numero(Object valor) {
+        return valor != null ? ((Number) valor).longValue() : null;
+    }
+
+    // O tipo devolvido para DATE em consulta nativa depende do driver/dialeto
+    private static LocalDate data(Object valor) {
+        return valor instanceof Date sql ? sql.toLocalDate() : (LocalDate) valor;
+    }
+
+    private List<Predicate> predicados(CriteriaBuilder cb, Root<ProcessoDigital> processo, FiltroProcessoDTO filtro) {
+        List<Predicate> predicados = new ArrayList<>();
+        if (filtro == null) {
+            return predicados;
+        }
+        if (filtro.getStatus() != null) {
+            predicados.add(cb.equal(processo.get("status"), filtro.getStatus()));
+        }
+        if (filtro.getSetor() != null) {
+            predicados.add(cb.equal(processo.get("setor"), filtro.getSetor()));
+        }
+        if (filtro.getAberturaDe() != null) {
+            predicados.add(cb.greaterThanOrEqualTo(processo.get("dataAbertura"), filtro.getAberturaDe()));
+        }
+        if (filtro.getAberturaAte() != null) {
+            predicados.add(cb.lessThanOrEqualTo(processo.get("dataAbertura"), filtro.getAberturaAte()));
+        }
+        if (filtro.getIdServidor() != null) {
+            // Compara a FK direto, sem join com dados_servidor
+            predicados.add(cb.equal(processo.get("servidorPublico").get("id_servidor"), filtro.getIdServidor()));
+        }
+        return predicados;
+    }
+}
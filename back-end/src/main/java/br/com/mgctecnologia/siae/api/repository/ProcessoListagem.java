@@ -0,0 +1,78 @@
+package br.com.mgctecnologia.siae.api.repository;
+
+import br.com.mgctecnologia.siae.api.model.DocsAnexados;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.ProcessoDigital;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.Setor;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.Status;
+
+import java.time.LocalDate;
+
+/**
+ * Exatamente as colunas das listagens de processos (processo + nome/telefone do servidor +
+ * nomes dos anexos), lidas num único SELECT com joins em vez de carregar as entidades.
+ */
+public record ProcessoListagem(Long idProcesso,
+                               String nomeBeneficiado,
+                               String telefone,
+                               LocalDate dataAbertura,
+                               Integer estimativa,
+                               LocalDate dataPrevisao,
+                               LocalDate dataFechamento,
+                               Setor setor,
+                               Status status,
+                               String assunto,
+                               Long idDocs,
+                               String reqPessoa,
+                               String memSolicitacaoJur,
+                               String parecerJuridico,
+                               String reqDecPrefeito,
+                               String decisaoPref,
+                               String outros,
+                               String memorandoPref) {
+
+    /**
+     * Mesma visão a partir de uma entidade já carregada (servidor e anexos devem vir no fetch).
+     */
+    public static ProcessoListagem de(ProcessoDigital processo) {
+        DocsAnexados docs = processo.getDocsAnexados();
+        boolean temServidor = processo.getServidorPublico() != null;
+        return new ProcessoListagem(
+                processo.getId_processo(),
+                temServidor ? processo.getServidorPublico().getNomeCompleto() : null,
+                temServidor ? processo.getServidorPublico().getTelefone() : null,
+                processo.getDataAbertura(),
+                processo.getEstimativa(),
+                processo.getDataPrevisao(),
+                processo.getDataFechamento(),
+                processo.getSetor(),
+                processo.getStatus(),
+                processo.getAssunto(),
+                docs != null ? docs.getId_docs() : null,
+                docs != null ? docs.getReqPessoa() : null,
+                docs != null ? docs.getMemSolicitacaoJur() : null,
+                docs != null ? docs.getParecerJuridico() : null,
+                docs != null ? docs.getReqDecPrefeito() : null,
+                docs != null ? docs.getDecisaoPref() : null,
+                docs != null ? docs.getOutros() : null,
+                docs != null ? docs.getMemorandoPref() : null);
+    }
+
+    /**
+     * Anexos como um DocsAnexados avulso (não gerenciado), ou null se o processo não tem anexos.
+     */
+    public DocsAnexados anexos() {
+        if (idDocs == null) {
+            return null;
+        }
+        DocsAnexados docs = new DocsAnexados();
+        docs.setId_docs(idDocs);
+        docs.setReqPessoa(reqPessoa);
+        docs.setMemSolicitacaoJur(memSolicitacaoJur);
+        docs.setParecerJuridico(parecerJuridico);
+        docs.setReqDecPrefeito(reqDecPrefeito);
+        docs.setDecisaoPref(decisaoPref);
+        docs.setOutros(outros);
+        docs.setMemorandoPref(memorandoPref);
+        return docs;
+    }
+}
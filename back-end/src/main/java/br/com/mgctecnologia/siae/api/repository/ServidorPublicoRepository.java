@@ -15,8 +15,23 @@ public interface ServidorPublicoRepository extends JpaRepository<ServidorPublico
     // Mtodo mgico do Spring Data JPA que busca por esses dois campos
     Optional<ServidorPublico> findByNomeCompletoAndTelefone(String nomeCompleto, String telefone);
 
-    @Query(value = "select * from dados_servidor where nome_completo like %:nomeCompleto%", nativeQuery = true)
-    List<ServidorPublico> buscarLikeNome(@Param("nomeCompleto") String nomeCompleto);
+    // Autocomplete com menos de 3 letras: comeo do nome, pelo ndice text_pattern_ops (schema-postgresql.sql)
+    @Query(value = "select * from dados_servidor s "
+            + "where lower(siae_unaccent(s.nome_completo)) like lower(siae_unaccent(:prefixo)) "
+            + "order by s.nome_completo limit :limite", nativeQuery = true)
+    List<ServidorPublico> buscarPorPrefixo(@Param("prefixo") String prefixo, @Param("limite") int limite);
+
+    // Trecho do nome ou nome parecido (erro de digitao), pelo ndice de trigramas; quem comea com o termo vem antes
+    @Query(value = "select * from dados_servidor s "
+            + "where lower(siae_unaccent(s.nome_completo)) like lower(siae_unaccent(:contem)) "
+            + "or lower(siae_unaccent(:termo)) <% lower(siae_unaccent(s.nome_completo)) "
+            + "order by (lower(siae_unaccent(s.nome_completo)) like lower(siae_unaccent(:prefixo))) desc, "
+            + "word_similarity(lower(siae_unaccent(:termo)), lower(siae_unaccent(s.nome_completo))) desc, "
+            + "s.nome_completo limit :limite", nativeQuery = true)
+    List<ServidorPublico> buscarPorSemelhanca(@Param("termo") String termo,
+                                              @Param("contem") String contem,
+                                              @Param("prefixo") String prefixo,
+                                              @Param("limite") int limite);
 
 
 }
\ No newline at end of file
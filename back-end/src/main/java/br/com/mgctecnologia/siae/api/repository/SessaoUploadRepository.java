@@ -0,0 +1,14 @@
+package br.com.mgctecnologia.siae.api.repository;
+
+import br.com.mgctecnologia.siae.api.model.SessaoUpload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SessaoUploadRepository extends JpaRepository<SessaoUpload, String> {
+
+    List<SessaoUpload> findByDataConclusaoIsNullAndDataAtualizacaoBefore(LocalDateTime limite);
+}
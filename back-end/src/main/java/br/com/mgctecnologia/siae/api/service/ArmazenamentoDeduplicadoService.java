@@ -0,0 +1,222 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.model.AssinaturaConteudo;
+import br.com.mgctecnologia.siae.api.repository.AssinaturaConteudoRepository;
+import br.com.mgctecnologia.siae.api.repository.BlobConteudoRepository;
+import org.bouncycastle.util.encoders.Hex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Armazenamento endereçado por conteúdo: cada arquivo vai para blobs/{sha256[0..2]}/{sha256}
+ * uma única vez, com contagem de referências. Reenviar um PDF já conhecido vira só um UPDATE,
+ * e assinar de novo o mesmo PDF com o mesmo certificado reaproveita o resultado anterior.
+ */
+@Service
+public class ArmazenamentoDeduplicadoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArmazenamentoDeduplicadoService.class);
+    private static final String PASTA_BLOBS = "blobs/";
+
+    private final BlobConteudoRepository blobRepository;
+    private final AssinaturaConteudoRepository assinaturaConteudoRepository;
+    private final MinioStorageService minioService;
+    private final AssinaturaDigitalService assinaturaService;
+    private final CertificadoService certificadoService;
+    private final TemporizadorEtapas temporizador;
+    private final TransactionTemplate transactionTemplate;
+
+    // Tempo mínimo sem referências antes da remoção (cobre uploads em andamento que ainda não referenciaram)
+    @Value("${siae.storage.dedup.carencia-minutos:60}")
+    private long carenciaMinutos;
+
+    public ArmazenamentoDeduplicadoService(BlobConteudoRepository blobRepository,
+                                           AssinaturaConteudoRepository assinaturaConteudoRepository,
+                                           MinioStorageService minioService,
+                                           AssinaturaDigitalService assinaturaService,
+                                           CertificadoService certificadoService,
+                                           TemporizadorEtapas temporizador,
+                                           PlatformTransactionManager transactionManager) {
+        this.blobRepository = blobRepository;
+        this.assinaturaConteudoRepository = assinaturaConteudoRepository;
+        this.minioService = minioService;
+        this.assinaturaService = assinaturaService;
+        this.certificadoService = certificadoService;
+        this.temporizador = temporizador;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public static boolean ehBlob(String objeto) {
+        return objeto != null && objeto.startsWith(PASTA_BLOBS);
+    }
+
+    /**
+     * Guarda o arquivo (ou só referencia o blob existente) e retorna o nome do objeto.
+     */
+    public String armazenar(MultipartFile arquivo) throws Exception {
+        Path temporario = Files.createTempFile("siae-blob-", ".bin");
+        try {
+            String sha256;
+            try (InputStream in = arquivo.getInputStream()) {
+                sha256 = temporizador.medir("spool", () -> copiarCalculandoSha256(in, temporario));
+            }
+            return armazenar(temporario, sha256, arquivo.getContentType());
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    /**
+     * Assina e guarda o resultado. Se este mesmo PDF já foi assinado com o certificado atual e o
+     * blob assinado ainda existe, só uma referência é adicionada: sem assinatura e sem upload.
+     */
+    public String armazenarAssinado(MultipartFile arquivo) throws Exception {
+        Path original = Files.createTempFile("siae-original-", ".pdf");
+        Path assinado = Files.createTempFile("siae-assinado-", ".pdf");
+        try {
+            String sha256Original;
+            try (InputStream in = arquivo.getInputStream()) {
+                sha256Original = temporizador.medir("spool", () -> copiarCalculandoSha256(in, original));
+            }
+            long versaoCertificado = certificadoService.getCredencialAssinatura().getUltimaModificacao();
+
+            Optional<AssinaturaConteudo> conhecida =
+                    assinaturaConteudoRepository.findBySha256OriginalAndVersaoCertificado(sha256Original, versaoCertificado);
+            if (conhecida.isPresent() && blobRepository.incrementar(conhecida.get().getSha256Assinado(), LocalDateTime.now()) > 0) {
+                return nomeBlob(conhecida.get().getSha256Assinado());
+            }
+
+            assinaturaService.assinarArquivo(original, assinado);
+            String sha256Assinado = sha256(assinado);
+            String objeto = armazenar(assinado, sha256Assinado, arquivo.getContentType());
+            registrarAssinatura(conhecida, sha256Original, versaoCertificado, sha256Assinado);
+            return objeto;
+        } finally {
+            Files.deleteIfExists(original);
+            Files.deleteIfExists(assinado);
+        }
+    }
+
+    /**
+     * Solta uma referência (anexo substituído ou operação desfeita). Objetos fora de blobs/ são ignorados.
+     */
+    public void liberar(String objeto) {
+        if (ehBlob(objeto)) {
+            blobRepository.decrementar(objeto, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Para quem troca o objeto de um anexo fora do pipeline: se o valor anterior era um blob
+     * (e não o mesmo conteúdo), a referência é solta só quando a transação atual confirmar.
+     */
+    public void liberarAposCommit(String anterior, String novo) {
+        if (!ehBlob(anterior) || anterior.equals(novo)) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            liberar(anterior);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                liberar(anterior);
+            }
+        });
+    }
+
+    /**
+     * Remove do MinIO os blobs sem referência há mais que a carência. A linha fica travada durante
+     * a remoção, então um incremento concorrente espera e, sem linha, o conteúdo é enviado de novo.
+     */
+    @Scheduled(fixedDelayString = "${siae.storage.dedup.coleta-ms:3600000}")
+    public void coletarSemReferencia() {
+        List<String> candidatos = blobRepository.findSemReferencia(LocalDateTime.now().minusMinutes(carenciaMinutos));
+        int removidos = 0;
+        for (String sha256 : candidatos) {
+            try {
+                Boolean removido = transactionTemplate.execute(s -> blobRepository.travar(sha256)
+                        .filter(blob -> blob.getReferencias() <= 0)
+                        .map(blob -> {
+                            minioService.removerObjetos(List.of(blob.getObjeto()));
+                            blobRepository.delete(blob);
+                            return true;
+                        })
+                        .orElse(false));
+                if (Boolean.TRUE.equals(removido)) removidos++;
+            } catch (Exception e) {
+                log.warn("Não foi possível remover o blob {}: {}", sha256, e.getMessage());
+            }
+        }
+        if (removidos > 0) {
+            log.info("{} blob(s) sem referência removido(s)", removidos);
+        }
+    }
+
+    private String armazenar(Path arquivo, String sha256, String contentType) throws Exception {
+        String objeto = nomeBlob(sha256);
+        if (blobRepository.incrementar(sha256, LocalDateTime.now()) > 0) {
+            return objeto;
+        }
+        minioService.uploadFile(arquivo, contentType, objeto);
+        blobRepository.inserirOuIncrementar(sha256, objeto, Files.size(arquivo), contentType, LocalDateTime.now());
+        return objeto;
+    }
+
+    private void registrarAssinatura(Optional<AssinaturaConteudo> existente, String sha256Original,
+                                     long versaoCertificado, String sha256Assinado) {
+        AssinaturaConteudo registro = existente.orElseGet(AssinaturaConteudo::new);
+        registro.setSha256Original(sha256Original);
+        registro.setVersaoCertificado(versaoCertificado);
+        registro.setSha256Assinado(sha256Assinado);
+        registro.setDataCriacao(LocalDateTime.now());
+        try {
+            assinaturaConteudoRepository.save(registro);
+        } catch (DataIntegrityViolationException e) {
+            // Outra requisição assinou o mesmo conteúdo ao mesmo tempo; qualquer um dos resultados serve
+        }
+    }
+
+    private static String nomeBlob(String sha256) {
+        return PASTA_BLOBS + sha256.substring(0, 2) + "/" + sha256;
+    }
+
+    private static String copiarCalculandoSha256(InputStream in, Path destino) throws Exception {
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        try (InputStream digest = new DigestInputStream(in, md);
+             OutputStream out = Files.newOutputStream(destino)) {
+            digest.transferTo(out);
+        }
+        return Hex.toHexString(md.digest());
+    }
+
+    private static String sha256(Path arquivo) throws Exception {
+        try (InputStream in = Files.newInputStream(arquivo)) {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            try (InputStream digest = new DigestInputStream(in, md)) {
+                digest.transferTo(OutputStream.nullOutputStream());
+            }
+            return Hex.toHexString(md.digest());
+        }
+    }
+}
@@ -1,148 +1,134 @@
 package br.com.mgctecnologia.siae.api.service;
 
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
 import org.apache.pdfbox.pdmodel.interactive.digitalsignature.SignatureInterface;
-import org.bouncycastle.cert.jcajce.JcaCertStore;
-import org.bouncycastle.cms.CMSProcessableByteArray;
 import org.bouncycastle.cms.CMSSignedData;
 import org.bouncycastle.cms.CMSSignedDataGenerator;
 import org.bouncycastle.cms.CMSTypedData;
-import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
-import org.bouncycastle.operator.ContentSigner;
-import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
-import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
-import java.security.KeyStore;
-import java.security.PrivateKey;
-import java.security.cert.Certificate;
-import java.security.cert.X509Certificate;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 @Service
 public class AssinaturaDigitalService {
 
     private final CertificadoService certificadoService;
+    private final TemporizadorEtapas temporizador;
 
-    public AssinaturaDigitalService(CertificadoService certificadoService) {
+    public AssinaturaDigitalService(CertificadoService certificadoService, TemporizadorEtapas temporizador) {
         this.certificadoService = certificadoService;
+        this.temporizador = temporizador;
     }
 
     /**
      * Assina um PDF e retorna os bytes do novo arquivo assinado.
+     * Mantém o documento inteiro em memória; para arquivos grandes use {@link #assinarArquivo(Path, Path)}.
      */
     public byte[] assinarDocumento(byte[] pdfOriginalBytes) throws Exception {
-        // 1. Carrega Chave e Cadeia de Certificados
-        KeyStore.PrivateKeyEntry keyEntry = carregarChavePrivada();
-        PrivateKey privateKey = keyEntry.getPrivateKey();
-        Certificate[] chain = keyEntry.getCertificateChain();
+        // 1. Obtém Chave e Cadeia de Certificados (já decifradas, em cache no CertificadoService)
+        CredencialAssinatura credencial = temporizador.medir("keystore", certificadoService::getCredencialAssinatura);
 
         // 2. Carrega o PDF na memória usando PDFBox
-        try (PDDocument doc = PDDocument.load(pdfOriginalBytes);
+        try (PDDocument doc = temporizador.medir("pdf-parse", () -> PDDocument.load(pdfOriginalBytes));
              ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-
-            // 3. Cria a estrutura da assinatura no PDF
-            PDSignature signature = new PDSignature();
-            signature.setFilter(PDSignature.FILTER_ADOBE_PPKLITE);
-            signature.setSubFilter(PDSignature.SUBFILTER_ADBE_PKCS7_DETACHED);
-            signature.setName("SIAE - Sistema Integrado");
-            signature.setReason("Assinatura Digital Institucional (MGC Tecnologia)");
-            signature.setSignDate(Calendar.getInstance());
-
-            // 4. Registra a interface de assinatura (Callbacks do PDFBox)
-            doc.addSignature(signature, new SignatureInterface() {
-                @Override
-                public byte[] sign(InputStream content) throws IOException {
-                    try {
-                        return gerarAssinaturaPKCS7(content, privateKey, chain);
-                    } catch (Exception e) {
-                        throw new IOException("Erro ao gerar criptografia PKCS7", e);
-                    }
-                }
-            });
-
-            // 5. Salva o PDF incrementalmente (obrigatório para assinaturas digitais)
-            doc.saveIncremental(baos);
+            assinar(doc, baos, credencial);
             return baos.toByteArray();
         }
     }
 
     /**
-     * Lógica "pesada" do Bouncy Castle para criar o bloco de assinatura CMS/PKCS#7.
+     * Assina um PDF lido do disco e escreve o resultado no stream de destino.
+     * O PDFBox trabalha com arquivo de rascunho (scratch file) e o intervalo assinado é
+     * lido em stream, então o heap usado por assinatura não cresce com o tamanho do documento.
      */
-    private byte[] gerarAssinaturaPKCS7(InputStream content, PrivateKey privateKey, Certificate[] chain) throws Exception {
-        List<Certificate> certList = Arrays.asList(chain);
-        JcaCertStore certs = new JcaCertStore(certList);
+    public void assinarDocumento(File pdfOriginal, OutputStream destino) throws Exception {
+        CredencialAssinatura credencial = temporizador.medir("keystore", certificadoService::getCredencialAssinatura);
 
-        // Prepara o gerador de assinatura
-        CMSSignedDataGenerator gen = new CMSSignedDataGenerator();
-
-        // Configura o algorítmo (SHA256 com RSA)
-        ContentSigner sha256Signer = new JcaContentSignerBuilder("SHA256withRSA").build(privateKey);
-
-        gen.addSignerInfoGenerator(
-                new JcaSignerInfoGeneratorBuilder(
-                        new JcaDigestCalculatorProviderBuilder().build())
-                        .build(sha256Signer, (X509Certificate) chain[0])
-        );
-
-        gen.addCertificates(certs);
+        try (PDDocument doc = temporizador.medir("pdf-parse",
+                () -> PDDocument.load(pdfOriginal, MemoryUsageSetting.setupTempFileOnly()))) {
+            assinar(doc, destino, credencial);
+        }
+    }
 
-        // CORREÇÃO AQUI: Usar CMSTypedData ao invés de CMSProcessable
-        byte[] bytesToSign = content.readAllBytes();
-        CMSTypedData msg = new CMSProcessableByteArray(bytesToSign);
+    /**
+     * Atalho de {@link #assinarDocumento(File, OutputStream)} de arquivo para arquivo.
+     */
+    public void assinarArquivo(Path pdfOriginal, Path pdfAssinado) throws Exception {
+        try (OutputStream out = Files.newOutputStream(pdfAssinado)) {
+            assinarDocumento(pdfOriginal.toFile(), out);
+        }
+    }
 
-        // Gera a assinatura final (false = detached / destacado)
-        CMSSignedData signedData = gen.generate(msg, false);
+    private void assinar(PDDocument doc, OutputStream destino, CredencialAssinatura credencial) throws IOException {
+        // 3. Cria a estrutura da assinatura no PDF
+        PDSignature signature = novaAssinaturaPdf();
+
+        // 4. Registra a interface de assinatura (Callbacks do PDFBox)
+        doc.addSignature(signature, new SignatureInterface() {
+            @Override
+            public byte[] sign(InputStream content) throws IOException {
+                try {
+                    return gerarAssinaturaPKCS7(content, credencial);
+                } catch (Exception e) {
+                    throw new IOException("Erro ao gerar criptografia PKCS7", e);
+                }
+            }
+        });
 
-        return signedData.getEncoded();
+        // 5. Salva o PDF incrementalmente (obrigatório para assinaturas digitais); inclui a etapa "cms"
+        temporizador.cronometrar("save-incremental", () -> doc.saveIncremental(destino));
     }
 
     /**
-     * Recupera a entrada completa (Chave + Certificados) do KeyStore.
+     * Dicionário de assinatura padrão do SIAE (PKCS#7 destacado).
      */
-    private KeyStore.PrivateKeyEntry carregarChavePrivada() throws Exception {
-        if (!certificadoService.existeCertificadoValido()) {
-            throw new IllegalStateException("Certificado não configurado no sistema.");
-        }
-
-        String senha = certificadoService.getSenhaCertificado();
-        KeyStore ks = KeyStore.getInstance("PKCS12");
+    static PDSignature novaAssinaturaPdf() {
+        PDSignature signature = new PDSignature();
+        signature.setFilter(PDSignature.FILTER_ADOBE_PPKLITE);
+        signature.setSubFilter(PDSignature.SUBFILTER_ADBE_PKCS7_DETACHED);
+        signature.setName("SIAE - Sistema Integrado");
+        signature.setReason("Assinatura Digital Institucional (MGC Tecnologia)");
+        signature.setSignDate(Calendar.getInstance());
+        return signature;
+    }
 
-        try (InputStream pfxStream = certificadoService.getPfxInputStream()) {
-            ks.load(pfxStream, senha.toCharArray());
-        }
+    /**
+     * Lógica "pesada" do Bouncy Castle para criar o bloco de assinatura CMS/PKCS#7.
+     */
+    byte[] gerarAssinaturaPKCS7(InputStream content, CredencialAssinatura credencial) throws Exception {
+        // Gerador montado a partir do material em cache (SHA256 com RSA, cadeia já convertida)
+        CMSSignedDataGenerator gen = credencial.criarGerador();
 
-        Enumeration<String> aliases = ks.aliases();
-        String alias = null;
-        while (aliases.hasMoreElements()) {
-            String a = aliases.nextElement();
-            if (ks.isKeyEntry(a)) {
-                alias = a;
-                break;
-            }
-        }
+        // O intervalo assinado é consumido em stream enquanto o hash é calculado
+        CMSTypedData msg = new CMSProcessableInputStream(content);
 
-        if (alias == null) throw new IllegalStateException("Nenhuma chave encontrada.");
+        // Gera a assinatura final (false = detached / destacado)
+        CMSSignedData signedData = temporizador.medir("cms", () -> gen.generate(msg, false));
 
-        return (KeyStore.PrivateKeyEntry) ks.getEntry(alias, new KeyStore.PasswordProtection(senha.toCharArray()));
+        return signedData.getEncoded();
     }
+
     public String assinarDocumento(String conteudoOriginal) throws Exception {
-        // 1. Carrega as chaves (Reutiliza seu método privado existente)
-        KeyStore.PrivateKeyEntry keyEntry = carregarChavePrivada();
+        // 1. Obtém as chaves em cache
+        CredencialAssinatura credencial = temporizador.medir("keystore", certificadoService::getCredencialAssinatura);
 
         // 2. Converte a String para Stream de bytes
         byte[] dados = conteudoOriginal.getBytes(StandardCharsets.UTF_8);
         ByteArrayInputStream streamDados = new ByteArrayInputStream(dados);
 
         // 3. Gera a assinatura PKCS7 (Reutiliza seu método privado existente)
-        byte[] assinaturaBytes = gerarAssinaturaPKCS7(streamDados, keyEntry.getPrivateKey(), keyEntry.getCertificateChain());
+        byte[] assinaturaBytes = gerarAssinaturaPKCS7(streamDados, credencial);
 
         // 4. Retorna em Base64 para o Controller
         return Base64.getEncoder().encodeToString(assinaturaBytes);
@@ -0,0 +1,171 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.DTO.ResultadoAssinaturaLoteDTO;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.ProcessoDigital;
+import br.com.mgctecnologia.siae.api.model.TipoDocumento;
+import br.com.mgctecnologia.siae.api.repository.ProcessoDigitalRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+@Service
+public class AssinaturaLoteService {
+
+    private final AssinaturaDigitalService assinaturaService;
+    private final CertificadoService certificadoService;
+    private final MinioStorageService minioService;
+    private final ProcessoDigitalRepository processoDigitalRepository;
+    private final Executor executor;
+
+    @Value("${siae.assinatura.lote.maximo:100}")
+    private int tamanhoMaximoLote;
+
+    public AssinaturaLoteService(AssinaturaDigitalService assinaturaService,
+                                 CertificadoService certificadoService,
+                                 MinioStorageService minioService,
+                                 ProcessoDigitalRepository processoDigitalRepository,
+                                 @Qualifier("assinaturaExecutor") Executor executor) {
+        this.assinaturaService = assinaturaService;
+        this.certificadoService = certificadoService;
+        this.minioService = minioService;
+        this.processoDigitalRepository = processoDigitalRepository;
+        this.executor = executor;
+    }
+
+    /**
+     * Assina em paralelo os PDFs enviados e grava cada resultado em uma pasta própria do lote.
+     * Falhas são reportadas por item, sem interromper os demais.
+     */
+    public List<ResultadoAssinaturaLoteDTO> assinarArquivos(List<MultipartFile> arquivos) throws Exception {
+        validarLote(arquivos);
+        String prefixoLote = "assinaturas-lote/" + UUID.randomUUID() + "/";
+
+        List<CompletableFuture<ResultadoAssinaturaLoteDTO>> futuros = arquivos.stream()
+                .map(arquivo -> CompletableFuture.supplyAsync(() -> assinarArquivo(arquivo, prefixoLote), executor))
+                .toList();
+        return futuros.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Assina em paralelo anexos já armazenados de um processo; cada versão assinada é gravada
+     * na pasta do processo. Só são aceitos objetos que são anexos do próprio processo.
+     */
+    public List<ResultadoAssinaturaLoteDTO> assinarObjetos(Long idProcesso, List<String> objetos) throws Exception {
+        if (idProcesso == null) {
+            throw new IllegalArgumentException("Informe o processo dos documentos.");
+        }
+        validarLote(objetos);
+        ProcessoDigital processo = processoDigitalRepository.buscarComAnexos(List.of(idProcesso)).stream().findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("Processo não encontrado com ID: " + idProcesso));
+        // Valida o lote inteiro antes de começar: nenhum nome de fora do processo chega a ser lido ou gravado
+        List<String> destinos = objetos.stream().map(objeto -> destinoAssinado(processo, objeto)).toList();
+
+        List<CompletableFuture<ResultadoAssinaturaLoteDTO>> futuros = new ArrayList<>();
+        for (int i = 0; i < objetos.size(); i++) {
+            String objeto = objetos.get(i);
+            String objetoAssinado = destinos.get(i);
+            futuros.add(CompletableFuture.supplyAsync(() -> assinarObjeto(objeto, objetoAssinado), executor));
+        }
+        return futuros.stream().map(CompletableFuture::join).toList();
+    }
+
+    private void validarLote(List<?> itens) throws Exception {
+        if (itens == null || itens.isEmpty()) {
+            throw new IllegalArgumentException("Nenhum documento informado para assinatura.");
+        }
+        if (itens.size() > tamanhoMaximoLote) {
+            throw new IllegalArgumentException("O lote excede o limite de " + tamanhoMaximoLote + " documentos.");
+        }
+        // Carrega (uma única vez) a credencial compartilhada pelos workers e falha cedo se não houver certificado
+        certificadoService.getCredencialAssinatura();
+    }
+
+    private ResultadoAssinaturaLoteDTO assinarArquivo(MultipartFile arquivo, String prefixoLote) {
+        ResultadoAssinaturaLoteDTO resultado = new ResultadoAssinaturaLoteDTO();
+        resultado.setNome(arquivo.getOriginalFilename());
+        try {
+            String objetoAssinado = prefixoLote + "ASSINADO-" + ProcessoDigitalService.sanitizeFilename(arquivo.getOriginalFilename());
+
+            Path original = Files.createTempFile("siae-lote-", ".pdf");
+            try {
+                arquivo.transferTo(original);
+                assinarEArmazenar(original, objetoAssinado);
+            } finally {
+                Files.deleteIfExists(original);
+            }
+            preencherSucesso(resultado, objetoAssinado);
+        } catch (Exception e) {
+            resultado.setErro(e.getMessage());
+        }
+        return resultado;
+    }
+
+    private ResultadoAssinaturaLoteDTO assinarObjeto(String objeto, String objetoAssinado) {
+        ResultadoAssinaturaLoteDTO resultado = new ResultadoAssinaturaLoteDTO();
+        resultado.setNome(objeto);
+        try {
+            Path original = Files.createTempFile("siae-lote-", ".pdf");
+            try {
+                minioService.baixarParaArquivo(objeto, original);
+                assinarEArmazenar(original, objetoAssinado);
+            } finally {
+                Files.deleteIfExists(original);
+            }
+            preencherSucesso(resultado, objetoAssinado);
+        } catch (Exception e) {
+            resultado.setErro(e.getMessage());
+        }
+        return resultado;
+    }
+
+    /**
+     * Nome da versão assinada de um anexo do processo: ao lado do original, ou na pasta do
+     * processo quando o original é um blob deduplicado (compartilhado entre processos).
+     */
+    static String destinoAssinado(ProcessoDigital processo, String objeto) {
+        TipoDocumento tipo = Arrays.stream(TipoDocumento.values())
+                .filter(t -> objeto != null && objeto.equals(t.obter(processo.getDocsAnexados())))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "O objeto " + objeto + " não é anexo do processo " + processo.getId_processo() + "."));
+        if (ArmazenamentoDeduplicadoService.ehBlob(objeto)) {
+            return UploadDiretoService.prefixoDoProcesso(processo) + "ASSINADO-" + tipo.getCampo() + ".pdf";
+        }
+        return nomeObjetoAssinado(objeto);
+    }
+
+    private void assinarEArmazenar(Path original, String objetoAssinado) throws Exception {
+        Path assinado = Files.createTempFile("siae-lote-assinado-", ".pdf");
+        try {
+            assinaturaService.assinarArquivo(original, assinado);
+            minioService.uploadFile(assinado, "application/pdf", objetoAssinado);
+        } finally {
+            Files.deleteIfExists(assinado);
+        }
+    }
+
+    private void preencherSucesso(ResultadoAssinaturaLoteDTO resultado, String objetoAssinado) {
+        resultado.setSucesso(true);
+        resultado.setObjetoAssinado(objetoAssinado);
+        resultado.setUrl(minioService.getPresignedUrl(objetoAssinado));
+    }
+
+    /**
+     * "pasta/arquivo.pdf" -> "pasta/ASSINADO-arquivo.pdf"
+     */
+    public static String nomeObjetoAssinado(String objeto) {
+        int barra = objeto.lastIndexOf('/');
+        return objeto.substring(0, barra + 1) + "ASSINADO-" + objeto.substring(barra + 1);
+    }
+}
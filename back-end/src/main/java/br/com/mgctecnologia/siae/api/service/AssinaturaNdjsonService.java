@@ -0,0 +1,90 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Assinatura de textos em fluxo NDJSON: uma linha de entrada {"id": ..., "conteudo": "..."}
+ * gera uma linha de saída {"id": ..., "assinaturaBase64": "..."} (ou {"id", "linha", "erro"}).
+ * O conteúdo não é devolvido e nada é acumulado, então a memória não cresce com o lote.
+ */
+@Service
+public class AssinaturaNdjsonService {
+
+    private final CertificadoService certificadoService;
+    private final TemporizadorEtapas temporizador;
+    private final ObjectMapper objectMapper;
+
+    public AssinaturaNdjsonService(CertificadoService certificadoService, TemporizadorEtapas temporizador,
+                                   ObjectMapper objectMapper) {
+        this.certificadoService = certificadoService;
+        this.temporizador = temporizador;
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean certificadoDisponivel() {
+        return certificadoService.existeCertificadoValido();
+    }
+
+    /**
+     * Lê e assina linha a linha. Credencial e gerador CMS são obtidos uma vez por fluxo
+     * (o gerador é reaproveitado em sequência, nunca entre threads). Retorna quantas linhas foram assinadas.
+     */
+    public long assinar(InputStream entrada, OutputStream saida) throws Exception {
+        CredencialAssinatura credencial = temporizador.medir("keystore", certificadoService::getCredencialAssinatura);
+        CMSSignedDataGenerator gerador = credencial.criarGerador();
+        Base64.Encoder base64 = Base64.getEncoder();
+
+        long assinadas = 0;
+        long numeroLinha = 0;
+        BufferedReader leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        OutputStream out = new BufferedOutputStream(saida);
+
+        String linha;
+        while ((linha = leitor.readLine()) != null) {
+            numeroLinha++;
+            if (linha.isBlank()) continue;
+
+            ObjectNode resultado = objectMapper.createObjectNode();
+            try {
+                JsonNode item = objectMapper.readTree(linha);
+                String conteudo = item.isTextual() ? item.asText() : item.path("conteudo").asText(null);
+                if (item.has("id")) {
+                    resultado.set("id", item.get("id"));
+                }
+                if (conteudo == null) {
+                    throw new IllegalArgumentException("Campo 'conteudo' ausente.");
+                }
+
+                byte[] assinatura = gerador.generate(new CMSProcessableByteArray(conteudo.getBytes(StandardCharsets.UTF_8)), false)
+                        .getEncoded();
+                resultado.put("assinaturaBase64", base64.encodeToString(assinatura));
+                assinadas++;
+            } catch (Exception e) {
+                resultado.put("linha", numeroLinha);
+                resultado.put("erro", e.getMessage());
+            }
+
+            out.write(objectMapper.writeValueAsBytes(resultado));
+            out.write('\n');
+            // Sem mais entrada já recebida: devolve o que foi assinado em vez de esperar o buffer encher
+            if (!leitor.ready()) {
+                out.flush();
+            }
+        }
+        out.flush();
+        return assinadas;
+    }
+}
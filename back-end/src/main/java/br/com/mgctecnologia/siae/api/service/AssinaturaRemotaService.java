@@ -0,0 +1,269 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.DTO.FinalizarAssinaturaRequest;
+import br.com.mgctecnologia.siae.api.DTO.PreparacaoAssinaturaDTO;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.ExternalSigningSupport;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.cms.CMSAttributes;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
+import org.bouncycastle.util.encoders.Hex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Assinatura em duas fases: o servidor reserva o espaço da assinatura no PDF e devolve só o hash;
+ * o CMS é gerado fora (token/navegador) e depois apenas gravado no espaço reservado.
+ */
+@Service
+public class AssinaturaRemotaService {
+
+    private static final Logger log = LoggerFactory.getLogger(AssinaturaRemotaService.class);
+    private static final Pattern BYTE_RANGE = Pattern.compile("/ByteRange\\s*\\[\\s*(\\d+)\\s+(\\d+)\\s+(\\d+)\\s+(\\d+)\\s*]");
+
+    private final MinioStorageService minioService;
+
+    // PDF preparado (com placeholder) aguardando o CMS externo, por tempId
+    private final Map<String, SessaoAssinatura> sessoes = new ConcurrentHashMap<>();
+
+    @Value("${siae.assinatura.remota.diretorio:${user.home}/.siae/assinatura-remota}")
+    private String diretorio;
+
+    @Value("${siae.assinatura.remota.validade-minutos:30}")
+    private long validadeMinutos;
+
+    public AssinaturaRemotaService(MinioStorageService minioService) {
+        this.minioService = minioService;
+    }
+
+    private record SessaoAssinatura(String objeto, Path preparado, long inicioContents, int capacidadeHex,
+                                    byte[] digest, Instant criadaEm) {}
+
+    /**
+     * Fase 1: grava o PDF com a assinatura reservada (conteúdo zerado) em disco local e
+     * devolve o SHA-256 do intervalo assinado, que é tudo o que o assinante externo precisa.
+     */
+    public PreparacaoAssinaturaDTO preparar(String objeto) throws Exception {
+        Path pasta = Paths.get(diretorio);
+        Files.createDirectories(pasta);
+        String tempId = UUID.randomUUID().toString();
+        Path preparado = pasta.resolve(tempId + ".pdf");
+        Path original = Files.createTempFile("siae-remota-", ".pdf");
+
+        try {
+            minioService.baixarParaArquivo(objeto, original);
+            long tamanhoOriginal = Files.size(original);
+
+            byte[] digest;
+            try (PDDocument doc = PDDocument.load(original.toFile(), MemoryUsageSetting.setupTempFileOnly());
+                 OutputStream out = Files.newOutputStream(preparado)) {
+                doc.addSignature(AssinaturaDigitalService.novaAssinaturaPdf());
+                ExternalSigningSupport externo = doc.saveIncrementalForExternalSigning(out);
+
+                MessageDigest md = MessageDigest.getInstance("SHA-256");
+                try (InputStream conteudo = new DigestInputStream(externo.getContent(), md)) {
+                    conteudo.transferTo(OutputStream.nullOutputStream());
+                }
+                digest = md.digest();
+
+                // Placeholder fica zerado; o CMS real é gravado na fase 2
+                externo.setSignature(new byte[0]);
+            }
+
+            long[] byteRange = lerByteRange(preparado, tamanhoOriginal);
+            long inicioContents = byteRange[1] + 1; // pula o '<'
+            int capacidadeHex = (int) (byteRange[2] - byteRange[1] - 2);
+
+            sessoes.put(tempId, new SessaoAssinatura(objeto, preparado, inicioContents, capacidadeHex, digest, Instant.now()));
+            return new PreparacaoAssinaturaDTO(tempId, Base64.getEncoder().encodeToString(digest));
+        } catch (Exception e) {
+            Files.deleteIfExists(preparado);
+            throw e;
+        } finally {
+            Files.deleteIfExists(original);
+        }
+    }
+
+    /**
+     * Fase 2: confere se o CMS recebido assina o hash preparado, grava-o no placeholder
+     * (escrita posicional, sem reabrir o PDF no PDFBox) e envia o arquivo final ao MinIO.
+     * Retorna o nome do objeto assinado.
+     */
+    public String finalizar(FinalizarAssinaturaRequest request) throws Exception {
+        // Retira a sessão para que dois finalizar do mesmo tempId não gravem o arquivo ao mesmo tempo
+        SessaoAssinatura sessao = sessoes.remove(request.getTempId());
+        if (sessao == null) {
+            throw new IllegalArgumentException("Preparação de assinatura não encontrada ou expirada: " + request.getTempId());
+        }
+
+        String objetoAssinado;
+        try {
+            byte[] cms = Base64.getDecoder().decode(request.getAssinaturaBase64());
+            validarCms(cms, sessao, request.getCertificadoBase64());
+
+            byte[] hex = Hex.toHexString(cms).toUpperCase().getBytes(StandardCharsets.US_ASCII);
+            if (hex.length > sessao.capacidadeHex()) {
+                throw new IllegalArgumentException("A assinatura excede o espaço reservado no documento.");
+            }
+            // Preenche o espaço inteiro (zeros após o CMS), para uma nova tentativa não herdar restos da anterior
+            byte[] conteudo = Arrays.copyOf(hex, sessao.capacidadeHex());
+            Arrays.fill(conteudo, hex.length, conteudo.length, (byte) '0');
+            try (FileChannel canal = FileChannel.open(sessao.preparado(), StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(conteudo);
+                long posicao = sessao.inicioContents();
+                while (buffer.hasRemaining()) {
+                    posicao += canal.write(buffer, posicao);
+                }
+            }
+
+            objetoAssinado = AssinaturaLoteService.nomeObjetoAssinado(sessao.objeto());
+            minioService.uploadFile(sessao.preparado(), "application/pdf", objetoAssinado);
+        } catch (Exception e) {
+            // CMS recusado ou falha no envio: a preparação continua valendo para outra tentativa
+            sessoes.put(request.getTempId(), sessao);
+            throw e;
+        }
+        Files.deleteIfExists(sessao.preparado());
+        return objetoAssinado;
+    }
+
+    /**
+     * Remove preparações abandonadas (o tempId só vale por alguns minutos).
+     */
+    @Scheduled(fixedDelay = 5 * 60 * 1000)
+    public void limparExpiradas() {
+        Instant limite = Instant.now().minus(Duration.ofMinutes(validadeMinutos));
+        sessoes.entrySet().removeIf(entrada -> {
+            if (entrada.getValue().criadaEm().isAfter(limite)) {
+                return false;
+            }
+            try {
+                Files.deleteIfExists(entrada.getValue().preparado());
+            } catch (IOException e) {
+                log.warn("Não foi possível remover a preparação expirada {}", entrada.getKey());
+            }
+            return true;
+        });
+    }
+
+    /**
+     * As sessões só existem em memória: depois de um reinício, os PDFs preparados que ficaram
+     * no diretório não têm mais tempId válido e são removidos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void limparOrfas() {
+        Path pasta = Paths.get(diretorio);
+        if (!Files.isDirectory(pasta)) {
+            return;
+        }
+        try (Stream<Path> arquivos = Files.list(pasta)) {
+            arquivos.filter(arquivo -> arquivo.getFileName().toString().endsWith(".pdf")).forEach(arquivo -> {
+                try {
+                    Files.deleteIfExists(arquivo);
+                } catch (IOException e) {
+                    log.warn("Não foi possível remover a preparação órfã {}", arquivo);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Não foi possível varrer o diretório de assinatura remota {}", pasta, e);
+        }
+    }
+
+    private void validarCms(byte[] cms, SessaoAssinatura sessao, String certificadoBase64) throws Exception {
+        CMSSignedData signedData = new CMSSignedData(cms);
+        SignerInformation signer = signedData.getSignerInfos().getSigners().iterator().next();
+
+        Attribute messageDigest = signer.getSignedAttributes() == null ? null
+                : signer.getSignedAttributes().get(CMSAttributes.messageDigest);
+        if (messageDigest == null) {
+            throw new IllegalArgumentException("O CMS recebido não contém o atributo messageDigest.");
+        }
+        byte[] digestAssinado = ASN1OctetString.getInstance(messageDigest.getAttrValues().getObjectAt(0)).getOctets();
+        if (!Arrays.equals(digestAssinado, sessao.digest())) {
+            throw new IllegalArgumentException("A assinatura não corresponde ao documento preparado.");
+        }
+
+        // O digest confere; falta provar que a assinatura sobre os atributos é do certificado do signatário
+        X509CertificateHolder certificado;
+        if (certificadoBase64 != null && !certificadoBase64.isBlank()) {
+            certificado = new X509CertificateHolder(Base64.getDecoder().decode(certificadoBase64));
+            if (!signer.getSID().match(certificado)) {
+                throw new IllegalArgumentException("O certificado informado não é o do signatário do CMS.");
+            }
+        } else {
+            @SuppressWarnings("unchecked")
+            Collection<X509CertificateHolder> certificados = signedData.getCertificates().getMatches(signer.getSID());
+            if (certificados.isEmpty()) {
+                throw new IllegalArgumentException("O CMS recebido não traz o certificado do signatário; informe-o.");
+            }
+            certificado = certificados.iterator().next();
+        }
+        boolean valida;
+        try {
+            valida = signer.verify(new JcaSimpleSignerInfoVerifierBuilder().build(certificado));
+        } catch (CMSException e) {
+            valida = false;
+        }
+        if (!valida) {
+            throw new IllegalArgumentException("A assinatura do CMS não confere com o certificado do signatário.");
+        }
+    }
+
+    /**
+     * Lê o /ByteRange gravado pelo PDFBox. Ele está na atualização incremental, então basta
+     * olhar os bytes depois do tamanho original (alguns KB), sem reprocessar o documento.
+     */
+    private long[] lerByteRange(Path preparado, long tamanhoOriginal) throws IOException {
+        try (FileChannel canal = FileChannel.open(preparado, StandardOpenOption.READ)) {
+            ByteBuffer cauda = ByteBuffer.allocate((int) (canal.size() - tamanhoOriginal));
+            while (cauda.hasRemaining()) {
+                if (canal.read(cauda, tamanhoOriginal + cauda.position()) < 0) break;
+            }
+            Matcher m = BYTE_RANGE.matcher(new String(cauda.array(), StandardCharsets.ISO_8859_1));
+            long[] byteRange = null;
+            while (m.find()) {
+                byteRange = new long[]{Long.parseLong(m.group(1)), Long.parseLong(m.group(2)),
+                        Long.parseLong(m.group(3)), Long.parseLong(m.group(4))};
+            }
+            if (byteRange == null) {
+                throw new IllegalStateException("ByteRange da assinatura não encontrado no PDF preparado.");
+            }
+            return byteRange;
+        }
+    }
+}
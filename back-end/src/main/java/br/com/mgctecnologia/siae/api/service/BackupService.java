@@ -2,14 +2,10 @@ package br.com.mgctecnologia.siae.api.service;
 
 import br.com.mgctecnologia.siae.api.model.BackupHistory;
 import br.com.mgctecnologia.siae.api.repository.BackupRepository;
-import io.minio.GetObjectArgs;
-import io.minio.MinioClient;
-import io.minio.PutObjectArgs;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -19,18 +15,8 @@ import java.util.List;
 public class BackupService {
 
     private final BackupRepository repository;
-
-    @Value("${minio.bucket.name}")
-    private String bucketName;
-
-    @Value("${minio.url}")
-    private String minioUrl;
-
-    @Value("${minio.access.key}")
-    private String accessKey;
-
-    @Value("${minio.secret.key}")
-    private String secretKey;
+    // Armazenamento configurado (MinIO ou disco local)
+    private final MinioStorageService minioService;
 
     @Value("${spring.datasource.password}")
     private String dbPassword;
@@ -40,8 +26,9 @@ public class BackupService {
     @Value("${app.database.container-name:siae_postgres}")
     private String containerName;
 
-    public BackupService(BackupRepository repository) {
+    public BackupService(BackupRepository repository, MinioStorageService minioService) {
         this.repository = repository;
+        this.minioService = minioService;
     }
 
     public List<BackupHistory> listarUltimos() {
@@ -94,22 +81,8 @@ public class BackupService {
                 throw new RuntimeException("Erro ao executar backup via Docker. Cdigo de sada: " + exitCode);
             }
 
-            // 2. Enviar para MinIO
-            MinioClient minioClient = MinioClient.builder()
-                    .endpoint(minioUrl)
-                    .credentials(accessKey, secretKey)
-                    .build();
-
-            try (FileInputStream fis = new FileInputStream(arquivoBackup)) {
-                minioClient.putObject(
-                        PutObjectArgs.builder()
-                                .bucket(bucketName)
-                                .object("backups/" + fileName)
-                                .stream(fis, arquivoBackup.length(), -1)
-                                .contentType("application/octet-stream")
-                                .build()
-                );
-            }
+            // 2. Enviar para o armazenamento
+            minioService.uploadFile(arquivoBackup.toPath(), "application/octet-stream", "backups/" + fileName);
 
             // 3. Atualizar Status
             historico.setStatus("SUCESSO");
@@ -135,22 +108,8 @@ public class BackupService {
         BackupHistory backup = repository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Backup no encontrado"));
 
-        try {
-            // 2. Pede o stream (fluxo de dados) para o MinIO
-            MinioClient minioClient = MinioClient.builder()
-                    .endpoint(minioUrl)
-                    .credentials(accessKey, secretKey)
-                    .build();
-
-            return minioClient.getObject(
-                    GetObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object("backups/" + backup.getNomeArquivo()) // garante o caminho correto
-                            .build()
-            );
-        } catch (Exception e) {
-            throw new RuntimeException("Erro ao baixar do MinIO: " + e.getMessage());
-        }
+        // 2. Pede o stream (fluxo de dados) para o armazenamento
+        return minioService.abrir("backups/" + backup.getNomeArquivo(), 0, null); // garante o caminho correto
     }
 
     public BackupHistory buscarPorId(Long id) {
@@ -0,0 +1,46 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.cms.CMSObjectIdentifiers;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSTypedData;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Conteúdo CMS lido de um stream: o Bouncy Castle calcula o hash à medida que os bytes
+ * passam, sem precisar do intervalo assinado inteiro em memória.
+ */
+class CMSProcessableInputStream implements CMSTypedData {
+
+    private final InputStream in;
+    private final ASN1ObjectIdentifier contentType;
+
+    CMSProcessableInputStream(InputStream in) {
+        this(CMSObjectIdentifiers.data, in);
+    }
+
+    CMSProcessableInputStream(ASN1ObjectIdentifier contentType, InputStream in) {
+        this.contentType = contentType;
+        this.in = in;
+    }
+
+    @Override
+    public Object getContent() {
+        return in;
+    }
+
+    @Override
+    public void write(OutputStream out) throws IOException, CMSException {
+        // Pode ser lido uma única vez: o stream vem do PDFBox e é consumido aqui
+        in.transferTo(out);
+        in.close();
+    }
+
+    @Override
+    public ASN1ObjectIdentifier getContentType() {
+        return contentType;
+    }
+}
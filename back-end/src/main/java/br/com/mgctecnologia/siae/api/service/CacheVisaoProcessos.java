@@ -0,0 +1,178 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.cache.CacheLRU;
+import br.com.mgctecnologia.siae.api.repository.ProcessoListagem;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Cache das visões de processo (as colunas de {@link ProcessoListagem}) usadas pelo detalhe e pelas
+ * listagens. Guarda os dados, não os DTOs: as URLs pré-assinadas continuam sendo montadas a cada
+ * leitura (e têm o próprio cache no MinioStorageService).
+ *
+ * <p>Quem altera um processo chama {@link #invalidarAposCommit(Long)}; as entradas só saem quando a
+ * transação termina, e até lá a própria transação lê direto do banco. Um contador de gerações impede
+ * que uma leitura iniciada antes de um commit guarde o valor antigo depois da invalidação.
+ * A validade é só uma rede de segurança para alterações feitas fora da aplicação.</p>
+ */
+@Service
+public class CacheVisaoProcessos {
+
+    private static final String CHAVE_LISTA = "todos";
+
+    // Ids alterados pela transação corrente (recurso ligado à thread enquanto ela durar)
+    private static class Pendentes {
+        private final Set<Long> ids = new HashSet<>();
+        private boolean tudo;
+    }
+
+    private final boolean habilitado;
+    private final int maximo;
+    private final CacheLRU<Long, ProcessoListagem> visoes;
+    private final CacheLRU<String, List<ProcessoListagem>> lista;
+    private long geracao;
+
+    public CacheVisaoProcessos(MeterRegistry meterRegistry,
+                               @Value("${siae.processos.cache.habilitado:true}") boolean habilitado,
+                               @Value("${siae.processos.cache.maximo:5000}") int maximo,
+                               @Value("${siae.processos.cache.validade-minutos:30}") long validadeMinutos) {
+        this.habilitado = habilitado;
+        this.maximo = maximo;
+        Duration validade = Duration.ofMinutes(validadeMinutos);
+        this.visoes = new CacheLRU<Long, ProcessoListagem>("processo-visao", maximo, validade)
+                .registrarMetricas(meterRegistry);
+        this.lista = new CacheLRU<String, List<ProcessoListagem>>("processo-lista", 1, validade)
+                .registrarMetricas(meterRegistry);
+    }
+
+    /**
+     * Visão de um processo, do cache ou de {@code carregar} (que deve ir ao banco).
+     */
+    public Optional<ProcessoListagem> obter(Long id, Supplier<Optional<ProcessoListagem>> carregar) {
+        if (!habilitado || alteradoNestaTransacao(id)) {
+            return carregar.get();
+        }
+        ProcessoListagem visao = visoes.obter(id);
+        if (visao != null) {
+            return Optional.of(visao);
+        }
+        long inicio = geracaoAtual();
+        Optional<ProcessoListagem> carregada = carregar.get();
+        carregada.ifPresent(v -> guardar(inicio, List.of(v), false));
+        return carregada;
+    }
+
+    /**
+     * Todos os processos. A lista só é guardada se couber no limite do cache; nesse caso também
+     * aquece as visões individuais (o detalhe costuma ser aberto logo depois da listagem).
+     */
+    public List<ProcessoListagem> listar(Supplier<List<ProcessoListagem>> carregar) {
+        if (!habilitado || alteradoNestaTransacao(null)) {
+            return carregar.get();
+        }
+        List<ProcessoListagem> itens = lista.obter(CHAVE_LISTA);
+        if (itens != null) {
+            return itens;
+        }
+        long inicio = geracaoAtual();
+        itens = List.copyOf(carregar.get());
+        if (itens.size() <= maximo) {
+            guardar(inicio, itens, true);
+        }
+        return itens;
+    }
+
+    /**
+     * Agenda a remoção do processo (e da lista completa) para o fim da transação corrente,
+     * ou remove na hora se não houver transação.
+     */
+    public void invalidarAposCommit(Long id) {
+        registrar(id, false);
+    }
+
+    /**
+     * Para alterações que atingem vários processos (ex.: dados do servidor vinculado).
+     */
+    public void invalidarTudoAposCommit() {
+        registrar(null, true);
+    }
+
+    public synchronized void limpar() {
+        geracao++;
+        visoes.limpar();
+        lista.limpar();
+    }
+
+    private void registrar(Long id, boolean tudo) {
+        if (!habilitado) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            aplicar(id != null ? Set.of(id) : Set.of(), tudo);
+            return;
+        }
+        Pendentes pendentes = (Pendentes) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            Pendentes novos = new Pendentes();
+            TransactionSynchronizationManager.bindResource(this, novos);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CacheVisaoProcessos.this);
+                    // Também em rollback/status desconhecido: uma leitura concorrente pode ter guardado algo no meio
+                    aplicar(novos.ids, novos.tudo);
+                }
+            });
+            pendentes = novos;
+        }
+        if (id != null) {
+            pendentes.ids.add(id);
+        }
+        pendentes.tudo |= tudo;
+    }
+
+    private synchronized void aplicar(Set<Long> ids, boolean tudo) {
+        geracao++;
+        lista.limpar();
+        if (tudo) {
+            visoes.limpar();
+        } else {
+            ids.forEach(visoes::remover);
+        }
+    }
+
+    // Só guarda se nenhuma invalidação aconteceu desde o início da leitura
+    private synchronized void guardar(long inicio, List<ProcessoListagem> itens, boolean completa) {
+        if (geracao != inicio) {
+            return;
+        }
+        if (completa) {
+            lista.colocar(CHAVE_LISTA, itens);
+        }
+        for (ProcessoListagem item : itens) {
+            visoes.colocar(item.idProcesso(), item);
+        }
+    }
+
+    private synchronized long geracaoAtual() {
+        return geracao;
+    }
+
+    private boolean alteradoNestaTransacao(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        Pendentes pendentes = (Pendentes) TransactionSynchronizationManager.getResource(this);
+        return pendentes != null && (id == null || pendentes.tudo || pendentes.ids.contains(id));
+    }
+}
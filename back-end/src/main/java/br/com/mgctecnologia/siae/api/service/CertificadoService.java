@@ -11,18 +11,32 @@ import java.security.cert.X509Certificate;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class CertificadoService {
 
     // Define onde os certificados ficarão salvos (ex: pasta do usuário/.siae/certs)
-    private static final String CERT_DIR = System.getProperty("user.home") + File.separator + ".siae" + File.separator + "certs";
+    private static final String CERT_DIR_PADRAO = System.getProperty("user.home") + File.separator + ".siae" + File.separator + "certs";
     private static final String PFX_FILENAME = "certificado_institucional.pfx";
     private static final String CONFIG_FILENAME = "cert_config.properties";
 
+    // Chave já decifrada em memória; trocada de uma vez quando o certificado muda
+    private final AtomicReference<CredencialAssinatura> credencial = new AtomicReference<>();
+
+    private final String certDir;
+
     public CertificadoService() {
+        this(Paths.get(CERT_DIR_PADRAO));
+    }
+
+    /**
+     * Permite apontar outra pasta de certificados (usado pelos benchmarks, fora do Spring).
+     */
+    public CertificadoService(Path diretorio) {
+        this.certDir = diretorio.toString();
         try {
-            Files.createDirectories(Paths.get(CERT_DIR));
+            Files.createDirectories(diretorio);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -42,11 +56,7 @@ public class CertificadoService {
             throw new IllegalArgumentException("O arquivo PFX não contém chaves.");
         }
 
-        // 3. Salva o arquivo PFX fisicamente
-        Path pathPfx = Paths.get(CERT_DIR, PFX_FILENAME);
-        Files.copy(arquivo.getInputStream(), pathPfx, StandardCopyOption.REPLACE_EXISTING);
-
-        // 4. Salva a senha (e metadados para leitura rápida sem abrir o pfx toda hora)
+        // 3. Senha (e metadados para leitura rápida sem abrir o pfx toda hora)
         Properties props = new Properties();
         props.setProperty("senha", senha);
 
@@ -57,8 +67,27 @@ public class CertificadoService {
         props.setProperty("emissor", extrairCN(cert.getIssuerX500Principal().getName()));
         props.setProperty("validade", String.valueOf(cert.getNotAfter().getTime()));
 
-        try (FileOutputStream fos = new FileOutputStream(new File(CERT_DIR, CONFIG_FILENAME))) {
-            props.store(fos, "Configuração do Certificado Digital");
+        // 4. Grava tudo em temporários; a troca (senha, depois PFX, depois a chave em memória) acontece
+        // sob o mesmo lock da recarga, então ninguém abre o PFX novo com a senha antiga
+        Path pathPfx = Paths.get(certDir, PFX_FILENAME);
+        Path pathConfig = Paths.get(certDir, CONFIG_FILENAME);
+        Path pfxTemporario = Files.createTempFile(Paths.get(certDir), "upload-", ".pfx");
+        Path configTemporario = Files.createTempFile(Paths.get(certDir), "config-", ".properties");
+        try {
+            Files.copy(arquivo.getInputStream(), pfxTemporario, StandardCopyOption.REPLACE_EXISTING);
+            try (OutputStream out = Files.newOutputStream(configTemporario)) {
+                props.store(out, "Configuração do Certificado Digital");
+            }
+
+            synchronized (credencial) {
+                Files.move(configTemporario, pathConfig, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.move(pfxTemporario, pathPfx, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                // Publica a nova chave para as assinaturas seguintes (o KeyStore já está aberto aqui)
+                credencial.set(CredencialAssinatura.carregar(ks, senha.toCharArray(), pathPfx.toFile().lastModified()));
+            }
+        } finally {
+            Files.deleteIfExists(pfxTemporario);
+            Files.deleteIfExists(configTemporario);
         }
     }
 
@@ -66,8 +95,8 @@ public class CertificadoService {
      * Retorna as informações para o Frontend exibir no Card.
      */
     public CertificadoInfoDTO getStatusCertificado() {
-        File pfxFile = new File(CERT_DIR, PFX_FILENAME);
-        File configFile = new File(CERT_DIR, CONFIG_FILENAME);
+        File pfxFile = new File(certDir, PFX_FILENAME);
+        File configFile = new File(certDir, CONFIG_FILENAME);
 
         if (!pfxFile.exists() || !configFile.exists()) {
             return null; // Nenhum certificado configurado
@@ -97,32 +126,68 @@ public class CertificadoService {
      * Remove os arquivos do disco.
      */
     public void removerCertificado() {
-        try {
-            Files.deleteIfExists(Paths.get(CERT_DIR, PFX_FILENAME));
-            Files.deleteIfExists(Paths.get(CERT_DIR, CONFIG_FILENAME));
-        } catch (IOException e) {
-            e.printStackTrace();
+        synchronized (credencial) {
+            try {
+                Files.deleteIfExists(Paths.get(certDir, PFX_FILENAME));
+                Files.deleteIfExists(Paths.get(certDir, CONFIG_FILENAME));
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                credencial.set(null);
+            }
         }
     }
 
     // --- MÉTODOS PARA USO INTERNO (Assinatura) ---
 
     public boolean existeCertificadoValido() {
-        return new File(CERT_DIR, PFX_FILENAME).exists();
+        return new File(certDir, PFX_FILENAME).exists();
     }
 
     public InputStream getPfxInputStream() throws FileNotFoundException {
-        return new FileInputStream(new File(CERT_DIR, PFX_FILENAME));
+        return new FileInputStream(new File(certDir, PFX_FILENAME));
     }
 
     public String getSenhaCertificado() throws IOException {
-        try (FileInputStream fis = new FileInputStream(new File(CERT_DIR, CONFIG_FILENAME))) {
+        try (FileInputStream fis = new FileInputStream(new File(certDir, CONFIG_FILENAME))) {
             Properties props = new Properties();
             props.load(fis);
             return props.getProperty("senha");
         }
     }
 
+    /**
+     * Retorna a credencial de assinatura em cache, recarregando do disco apenas se o PFX
+     * foi trocado por fora da aplicação (comparação pela data de modificação do arquivo).
+     */
+    public CredencialAssinatura getCredencialAssinatura() throws Exception {
+        File pfxFile = new File(certDir, PFX_FILENAME);
+        if (!pfxFile.exists()) {
+            credencial.set(null);
+            throw new IllegalStateException("Certificado não configurado no sistema.");
+        }
+
+        CredencialAssinatura atual = credencial.get();
+        if (atual != null && atual.getUltimaModificacao() == pfxFile.lastModified()) {
+            return atual;
+        }
+
+        synchronized (credencial) {
+            atual = credencial.get();
+            long modificacao = pfxFile.lastModified();
+            if (atual == null || atual.getUltimaModificacao() != modificacao) {
+                char[] senha = getSenhaCertificado().toCharArray();
+                KeyStore ks = KeyStore.getInstance("PKCS12");
+                try (InputStream pfxStream = getPfxInputStream()) {
+                    ks.load(pfxStream, senha);
+                }
+                atual = CredencialAssinatura.carregar(ks, senha, modificacao);
+                credencial.set(atual);
+            }
+            return atual;
+        }
+    }
+
     private String extrairCN(String dn) {
         if (dn == null) return "";
         for (String part : dn.split(",")) {
@@ -0,0 +1,81 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import org.bouncycastle.cert.jcajce.JcaCertStore;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Enumeration;
+
+/**
+ * Material de assinatura já decifrado (chave, cadeia e estruturas do Bouncy Castle prontas).
+ * É imutável e pode ser compartilhado entre várias assinaturas simultâneas.
+ */
+public final class CredencialAssinatura {
+
+    private static final String ALGORITMO = "SHA256withRSA";
+
+    private final PrivateKey chavePrivada;
+    private final Certificate[] cadeia;
+    private final X509Certificate certificado;
+    private final JcaCertStore certStore;
+    private final JcaSignerInfoGeneratorBuilder signerInfoBuilder;
+    private final long ultimaModificacao;
+
+    private CredencialAssinatura(PrivateKey chavePrivada, Certificate[] cadeia, long ultimaModificacao) throws Exception {
+        this.chavePrivada = chavePrivada;
+        this.cadeia = cadeia.clone();
+        this.certificado = (X509Certificate) cadeia[0];
+        this.certStore = new JcaCertStore(Arrays.asList(cadeia));
+        this.signerInfoBuilder = new JcaSignerInfoGeneratorBuilder(new JcaDigestCalculatorProviderBuilder().build());
+        this.ultimaModificacao = ultimaModificacao;
+    }
+
+    /**
+     * Extrai a primeira entrada de chave do KeyStore já aberto (operação cara: decifra o PKCS12).
+     */
+    static CredencialAssinatura carregar(KeyStore ks, char[] senha, long ultimaModificacao) throws Exception {
+        Enumeration<String> aliases = ks.aliases();
+        String alias = null;
+        while (aliases.hasMoreElements()) {
+            String a = aliases.nextElement();
+            if (ks.isKeyEntry(a)) {
+                alias = a;
+                break;
+            }
+        }
+
+        if (alias == null) throw new IllegalStateException("Nenhuma chave encontrada.");
+
+        KeyStore.PrivateKeyEntry entry = (KeyStore.PrivateKeyEntry) ks.getEntry(alias, new KeyStore.PasswordProtection(senha));
+        return new CredencialAssinatura(entry.getPrivateKey(), entry.getCertificateChain(), ultimaModificacao);
+    }
+
+    /**
+     * Cria um gerador CMS pronto para uso. O gerador e o ContentSigner não são thread-safe,
+     * por isso cada assinatura recebe o seu, mas ambos partem do material já carregado.
+     */
+    public CMSSignedDataGenerator criarGerador() throws OperatorCreationException, CertificateEncodingException, CMSException {
+        ContentSigner sha256Signer = new JcaContentSignerBuilder(ALGORITMO).build(chavePrivada);
+
+        CMSSignedDataGenerator gen = new CMSSignedDataGenerator();
+        gen.addSignerInfoGenerator(signerInfoBuilder.build(sha256Signer, certificado));
+        gen.addCertificates(certStore);
+        return gen;
+    }
+
+    public PrivateKey getChavePrivada() { return chavePrivada; }
+    public Certificate[] getCadeia() { return cadeia.clone(); }
+    public X509Certificate getCertificado() { return certificado; }
+    public long getUltimaModificacao() { return ultimaModificacao; }
+}
@@ -0,0 +1,168 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.DTO.FiltroProcessoDTO;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.ProcessoDigital;
+import br.com.mgctecnologia.siae.api.model.TipoDocumento;
+import br.com.mgctecnologia.siae.api.repository.ProcessoDigitalRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Exporta os anexos de um ou vários processos em um ZIP escrito direto na resposta, sem arquivo
+ * temporário: cada objeto vai do MinIO para a entrada do ZIP por um buffer fixo. Os próximos
+ * objetos já são abertos em paralelo (janela limitada), escondendo a latência de cada GET.
+ */
+@Service
+public class ExportacaoZipService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportacaoZipService.class);
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    /** Entrada do ZIP e objeto de onde vem o conteúdo. */
+    public record ItemExportacao(String entrada, String objeto) {}
+
+    private final ProcessoDigitalRepository processoDigitalRepository;
+    private final MinioStorageService minioService;
+    private final ThreadPoolTaskExecutor executor;
+
+    // Quantos objetos ficam abertos à frente do que está sendo escrito
+    @Value("${siae.exportacao.prefetch:4}")
+    private int prefetch;
+
+    @Value("${siae.exportacao.maximo-processos:2000}")
+    private int maximoProcessos;
+
+    public ExportacaoZipService(ProcessoDigitalRepository processoDigitalRepository,
+                                MinioStorageService minioService,
+                                @Qualifier("anexosExecutor") ThreadPoolTaskExecutor executor) {
+        this.processoDigitalRepository = processoDigitalRepository;
+        this.minioService = minioService;
+        this.executor = executor;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ItemExportacao> listarDoProcesso(Long id) {
+        ProcessoDigital processo = processoDigitalRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Processo não encontrado com ID: " + id));
+        List<ItemExportacao> itens = new ArrayList<>();
+        adicionarItens(processo, itens);
+        return itens;
+    }
+
+    /**
+     * Itens de todos os processos do filtro. A lista é montada antes de a resposta começar,
+     * então um filtro amplo demais é recusado com erro em vez de gerar um ZIP truncado.
+     */
+    @Transactional(readOnly = true)
+    public List<ItemExportacao> listar(FiltroProcessoDTO filtro) {
+        List<ProcessoDigital> processos = processoDigitalRepository.buscarComAnexos(filtro, maximoProcessos + 1);
+        if (processos.size() > maximoProcessos) {
+            throw new IllegalArgumentException("O filtro retorna mais de " + maximoProcessos
+                    + " processos; restrinja o período ou o status.");
+        }
+        List<ItemExportacao> itens = new ArrayList<>();
+        for (ProcessoDigital processo : processos) {
+            adicionarItens(processo, itens);
+        }
+        return itens;
+    }
+
+    /**
+     * Escreve o ZIP. Objetos que não puderem ser abertos não interrompem a exportação:
+     * são listados em ERROS.txt no fim do arquivo.
+     */
+    public void escrever(List<ItemExportacao> itens, OutputStream saida) throws IOException {
+        Deque<CompletableFuture<InputStream>> janela = new ArrayDeque<>();
+        List<String> erros = new ArrayList<>();
+        int proximo = 0;
+
+        ZipOutputStream zip = new ZipOutputStream(saida, StandardCharsets.UTF_8);
+        // PDFs já são comprimidos: compressão rápida gasta menos CPU e quase não muda o tamanho
+        zip.setLevel(Deflater.BEST_SPEED);
+        try {
+            byte[] buffer = new byte[TAMANHO_BUFFER];
+            for (ItemExportacao item : itens) {
+                while (proximo < itens.size() && janela.size() < Math.max(1, prefetch)) {
+                    String objeto = itens.get(proximo++).objeto();
+                    janela.add(CompletableFuture.supplyAsync(() -> minioService.abrir(objeto, 0, null), executor));
+                }
+
+                InputStream in;
+                try {
+                    in = janela.poll().join();
+                } catch (CompletionException e) {
+                    Throwable causa = e.getCause() != null ? e.getCause() : e;
+                    erros.add(item.entrada() + " (" + item.objeto() + "): " + causa.getMessage());
+                    continue;
+                }
+
+                try (in) {
+                    zip.putNextEntry(new ZipEntry(item.entrada()));
+                    int lidos;
+                    while ((lidos = in.read(buffer)) != -1) {
+                        zip.write(buffer, 0, lidos);
+                    }
+                    zip.closeEntry();
+                }
+            }
+
+            if (!erros.isEmpty()) {
+                log.warn("Exportação concluída com {} documento(s) indisponível(is)", erros.size());
+                zip.putNextEntry(new ZipEntry("ERROS.txt"));
+                zip.write(String.join("\n", erros).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+        } finally {
+            // Cliente desconectou ou a leitura falhou: fecha o que já tinha sido aberto à frente
+            for (CompletableFuture<InputStream> pendente : janela) {
+                pendente.thenAccept(ExportacaoZipService::fecharSilenciosamente);
+            }
+        }
+    }
+
+    private static void adicionarItens(ProcessoDigital processo, List<ItemExportacao> itens) {
+        String pasta = "processo-" + processo.getId_processo() + "/";
+        for (TipoDocumento tipo : TipoDocumento.values()) {
+            String objeto = tipo.obter(processo.getDocsAnexados());
+            if (objeto != null && !objeto.isBlank()) {
+                itens.add(new ItemExportacao(pasta + nomeEntrada(tipo, objeto), objeto));
+            }
+        }
+    }
+
+    // Cada processo tem no máximo um anexo por tipo, então o prefixo do tipo garante nomes únicos na pasta
+    private static String nomeEntrada(TipoDocumento tipo, String objeto) {
+        String nome = objeto.substring(objeto.lastIndexOf('/') + 1);
+        return nome.startsWith(tipo.getCampo()) ? nome : tipo.getCampo() + "-" + nome;
+    }
+
+    private static void fecharSilenciosamente(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException ignorada) {
+            // Conexão já descartada
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.DTO.ServidorPublicoDTO;
+import br.com.mgctecnologia.siae.api.model.ServidorPublico;
+import br.com.mgctecnologia.siae.api.repository.ServidorPublicoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice em memória dos nomes de servidores para o autocomplete. Cada palavra do nome (sem acentos,
+ * minúscula) abre uma chave com o restante do nome, num mapa ordenado; buscar por prefixo é ler um
+ * intervalo desse mapa, sem ir ao banco. Carregado na subida e atualizado depois do commit de cada
+ * gravação de servidor.
+ */
+@Service
+public class IndiceNomesServidores {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceNomesServidores.class);
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+    // Prefixos de uma ou duas letras casam com muitas chaves; o ranking considera só as primeiras
+    private static final int MAXIMO_CHAVES_LIDAS = 500;
+
+    private record Servidor(Long id, String nomeCompleto, String telefone) {}
+
+    private record Entrada(Servidor servidor, int palavra) {}
+
+    private final ServidorPublicoRepository servidorPublicoRepository;
+    private final boolean habilitado;
+
+    // Chave: trecho normalizado do nome a partir de uma palavra + "\0" + id do servidor
+    private final ConcurrentSkipListMap<String, Entrada> chaves = new ConcurrentSkipListMap<>();
+    private final Map<Long, List<String>> chavesPorServidor = new ConcurrentHashMap<>();
+    private volatile boolean pronto;
+
+    public IndiceNomesServidores(ServidorPublicoRepository servidorPublicoRepository,
+                                 @Value("${siae.servidores.indice-nomes.habilitado:true}") boolean habilitado) {
+        this.servidorPublicoRepository = servidorPublicoRepository;
+        this.habilitado = habilitado;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            List<ServidorPublico> servidores = servidorPublicoRepository.findAll();
+            servidores.forEach(this::indexar);
+            pronto = true;
+            log.info("Índice de nomes de servidores carregado: {} servidores", servidores.size());
+        } catch (Exception e) {
+            log.warn("Não foi possível carregar o índice de nomes; o autocomplete usará o banco: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Se false, o autocomplete deve consultar o banco.
+     */
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    /**
+     * Servidores com alguma palavra do nome começando pelo termo (que pode ter várias palavras).
+     * Quem começa com o termo vem primeiro; dentro de cada grupo, ordem alfabética.
+     */
+    public List<ServidorPublicoDTO> buscar(String termo, int limite) {
+        String prefixo = normalizar(termo);
+        if (prefixo.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Entrada> encontrados = new LinkedHashMap<>();
+        int lidas = 0;
+        for (Entrada entrada : chaves.subMap(prefixo, true, prefixo + Character.MAX_VALUE, false).values()) {
+            encontrados.merge(entrada.servidor().id(), entrada, (a, b) -> a.palavra() <= b.palavra() ? a : b);
+            if (++lidas >= MAXIMO_CHAVES_LIDAS) {
+                break;
+            }
+        }
+        return encontrados.values().stream()
+                .sorted(Comparator.comparing((Entrada e) -> e.palavra() > 0)
+                        .thenComparing(e -> e.servidor().nomeCompleto(), String.CASE_INSENSITIVE_ORDER))
+                .limit(limite)
+                .map(e -> new ServidorPublicoDTO(e.servidor().id(), e.servidor().nomeCompleto(), e.servidor().telefone()))
+                .toList();
+    }
+
+    /**
+     * Reindexa o servidor quando a transação corrente for confirmada (ou na hora, sem transação).
+     */
+    public void atualizarAposCommit(ServidorPublico servidor) {
+        if (!habilitado || servidor.getId_servidor() == null) {
+            return;
+        }
+        Servidor copia = new Servidor(servidor.getId_servidor(), servidor.getNomeCompleto(), servidor.getTelefone());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            indexar(copia);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                indexar(copia);
+            }
+        });
+    }
+
+    private void indexar(ServidorPublico servidor) {
+        indexar(new Servidor(servidor.getId_servidor(), servidor.getNomeCompleto(), servidor.getTelefone()));
+    }
+
+    // Gravações serializadas; leitores podem ver por um instante o nome antigo e o novo juntos
+    private synchronized void indexar(Servidor servidor) {
+        List<String> anteriores = chavesPorServidor.remove(servidor.id());
+        if (anteriores != null) {
+            anteriores.forEach(chaves::remove);
+        }
+        String nome = normalizar(servidor.nomeCompleto());
+        if (nome.isEmpty()) {
+            return;
+        }
+        List<String> novas = new ArrayList<>();
+        int palavra = 0;
+        for (int i = 0; i < nome.length(); i++) {
+            if (i == 0 || nome.charAt(i - 1) == ' ') {
+                String chave = nome.substring(i) + "\0" + servidor.id();
+                chaves.put(chave, new Entrada(servidor, palavra++));
+                novas.add(chave);
+            }
+        }
+        chavesPorServidor.put(servidor.id(), novas);
+    }
+
+    // Sem acentos, minúsculo e com espaços simples (o equivalente a lower(siae_unaccent(...)) do banco)
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcentos = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACOS.matcher(semAcentos.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,318 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.DTO.JobAssinaturaDTO;
+import br.com.mgctecnologia.siae.api.model.DocsAnexados;
+import br.com.mgctecnologia.siae.api.model.JobAssinatura;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.ProcessoDigital;
+import br.com.mgctecnologia.siae.api.model.StatusJobAssinatura;
+import br.com.mgctecnologia.siae.api.model.TipoDocumento;
+import br.com.mgctecnologia.siae.api.repository.JobAssinaturaRepository;
+import br.com.mgctecnologia.siae.api.repository.ProcessoDigitalRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Service
+public class JobAssinaturaService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobAssinaturaService.class);
+
+    private final JobAssinaturaRepository jobRepository;
+    private final ProcessoDigitalRepository processoDigitalRepository;
+    private final AssinaturaDigitalService assinaturaService;
+    private final MinioStorageService minioService;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheVisaoProcessos cacheVisoes;
+    private final ArmazenamentoDeduplicadoService deduplicado;
+
+    // Clientes acompanhando cada job via Server-Sent Events
+    private final Map<Long, List<SseEmitter>> inscritos = new ConcurrentHashMap<>();
+
+    @Value("${siae.jobs.diretorio:${user.home}/.siae/jobs}")
+    private String diretorioJobs;
+
+    public JobAssinaturaService(JobAssinaturaRepository jobRepository,
+                                ProcessoDigitalRepository processoDigitalRepository,
+                                AssinaturaDigitalService assinaturaService,
+                                MinioStorageService minioService,
+                                @Qualifier("jobAssinaturaExecutor") ThreadPoolTaskExecutor executor,
+                                PlatformTransactionManager transactionManager,
+                                CacheVisaoProcessos cacheVisoes,
+                                ArmazenamentoDeduplicadoService deduplicado) {
+        this.jobRepository = jobRepository;
+        this.processoDigitalRepository = processoDigitalRepository;
+        this.assinaturaService = assinaturaService;
+        this.minioService = minioService;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheVisoes = cacheVisoes;
+        this.deduplicado = deduplicado;
+    }
+
+    /**
+     * Guarda uma cópia local do arquivo e registra o job como PENDENTE na transação atual.
+     * O worker só é disparado depois do commit, quando o processo já está visível no banco.
+     */
+    public JobAssinatura agendar(Long idProcesso, TipoDocumento tipo, MultipartFile arquivo, String objetoDestino) throws IOException {
+        Path copiaLocal = novoArquivoLocal();
+        arquivo.transferTo(copiaLocal);
+        return agendar(idProcesso, tipo, copiaLocal, arquivo.getContentType(), objetoDestino);
+    }
+
+    /**
+     * Mesmo que {@link #agendar(Long, TipoDocumento, MultipartFile, String)} para um arquivo já gravado
+     * em {@link #novoArquivoLocal()}; o job passa a ser dono do arquivo.
+     */
+    public JobAssinatura agendar(Long idProcesso, TipoDocumento tipo, Path copiaLocal, String contentType,
+                                 String objetoDestino) {
+        garantirDocsAnexados(idProcesso);
+
+        JobAssinatura job = new JobAssinatura();
+        job.setIdProcesso(idProcesso);
+        job.setTipoDocumento(tipo);
+        job.setObjetoDestino(objetoDestino);
+        job.setArquivoTemporario(copiaLocal.toString());
+        job.setContentType(contentType);
+        JobAssinatura salvo = jobRepository.save(job);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    disparar(salvo.getId());
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        excluirCopiaLocal(copiaLocal.toString());
+                    }
+                }
+            });
+        } else {
+            disparar(salvo.getId());
+        }
+        return salvo;
+    }
+
+    /**
+     * Cria o DocsAnexados do processo na transação do pedido, com a linha travada, para os workers
+     * só preencherem colunas de um registro que já existe.
+     */
+    private void garantirDocsAnexados(Long idProcesso) {
+        ProcessoDigital processo = processoDigitalRepository.travar(idProcesso)
+                .orElseThrow(() -> new EntityNotFoundException("Processo não encontrado: " + idProcesso));
+        if (processo.getDocsAnexados() == null) {
+            processo.setDocsAnexados(new DocsAnexados());
+            processoDigitalRepository.save(processo);
+        }
+    }
+
+    /**
+     * Caminho novo no diretório dos jobs (sobrevive a reinícios, ao contrário do temp do sistema).
+     */
+    public Path novoArquivoLocal() throws IOException {
+        Path diretorio = Paths.get(diretorioJobs);
+        Files.createDirectories(diretorio);
+        return diretorio.resolve(UUID.randomUUID() + ".pdf");
+    }
+
+    public JobAssinaturaDTO buscarPorId(Long id) {
+        return jobRepository.findById(id)
+                .map(JobAssinaturaDTO::new)
+                .orElseThrow(() -> new EntityNotFoundException("Job de assinatura não encontrado: " + id));
+    }
+
+    public List<JobAssinaturaDTO> listarPorProcesso(Long idProcesso) {
+        return jobRepository.findByIdProcessoOrderByIdAsc(idProcesso).stream().map(JobAssinaturaDTO::new).toList();
+    }
+
+    /**
+     * Abre um canal SSE que recebe o status atual e cada mudança até o job terminar.
+     */
+    public SseEmitter inscrever(Long id) throws IOException {
+        JobAssinaturaDTO atual = buscarPorId(id);
+        SseEmitter emitter = new SseEmitter(10 * 60 * 1000L);
+        emitter.send(SseEmitter.event().name("status").data(atual));
+        if (terminado(atual.getStatus())) {
+            emitter.complete();
+            return emitter;
+        }
+
+        List<SseEmitter> lista = inscritos.computeIfAbsent(id, k -> new CopyOnWriteArrayList<>());
+        lista.add(emitter);
+        Runnable remover = () -> lista.remove(emitter);
+        emitter.onCompletion(remover);
+        emitter.onTimeout(remover);
+        emitter.onError(e -> remover.run());
+        return emitter;
+    }
+
+    /**
+     * Executa um job: assina a cópia local, envia ao MinIO e vincula o objeto ao processo.
+     * Nenhuma transação fica aberta durante a assinatura e o upload.
+     */
+    public void executar(Long id) {
+        Integer pego = transactionTemplate.execute(s -> jobRepository.alterarStatus(
+                id, StatusJobAssinatura.PENDENTE, StatusJobAssinatura.EM_EXECUCAO, LocalDateTime.now()));
+        if (pego == null || pego == 0) {
+            return; // Outro worker já pegou (ou o job não está mais pendente)
+        }
+        notificar(id);
+
+        JobAssinatura job = jobRepository.findById(id).orElseThrow();
+        Path assinado = null;
+        try {
+            assinado = Files.createTempFile("siae-job-assinado-", ".pdf");
+            assinaturaService.assinarArquivo(Paths.get(job.getArquivoTemporario()), assinado);
+            minioService.uploadFile(assinado, job.getContentType(), job.getObjetoDestino());
+
+            transactionTemplate.executeWithoutResult(s -> {
+                // Com a linha travada, outro job do mesmo processo espera e relê os anexos já gravados
+                ProcessoDigital processo = processoDigitalRepository.travar(job.getIdProcesso())
+                        .orElseThrow(() -> new EntityNotFoundException("Processo não encontrado: " + job.getIdProcesso()));
+                DocsAnexados docs = processo.getDocsAnexados();
+                if (docs == null) {
+                    docs = new DocsAnexados();
+                    processo.setDocsAnexados(docs);
+                }
+                deduplicado.liberarAposCommit(job.getTipoDocumento().obter(docs), job.getObjetoDestino());
+                job.getTipoDocumento().definir(docs, job.getObjetoDestino());
+                processoDigitalRepository.save(processo);
+                cacheVisoes.invalidarAposCommit(processo.getId_processo());
+
+                job.setStatus(StatusJobAssinatura.CONCLUIDO);
+                job.setErro(null);
+                jobRepository.save(job);
+            });
+            excluirCopiaLocal(job.getArquivoTemporario());
+        } catch (Exception e) {
+            log.error("Falha no job de assinatura {}", id, e);
+            if (registrarErro(job, e)) {
+                // ERRO é final: a cópia local não será mais usada
+                excluirCopiaLocal(job.getArquivoTemporario());
+            }
+        } finally {
+            if (assinado != null) {
+                excluirCopiaLocal(assinado.toString());
+            }
+        }
+        notificar(id);
+    }
+
+    /**
+     * Grava o ERRO do job. Se nem isso for possível (banco fora), o job fica EM_EXECUCAO e
+     * volta para a fila no próximo reinício; por isso a cópia local só é apagada se gravou.
+     */
+    private boolean registrarErro(JobAssinatura job, Exception causa) {
+        try {
+            job.setStatus(StatusJobAssinatura.ERRO);
+            job.setErro(causa.getMessage());
+            jobRepository.save(job);
+            return true;
+        } catch (Exception e) {
+            log.error("Não foi possível registrar o erro do job de assinatura {}", job.getId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Jobs que estavam em execução quando a aplicação parou voltam para a fila.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recuperarInterrompidos() {
+        Integer recuperados = transactionTemplate.execute(s -> jobRepository.alterarStatusDeTodos(
+                StatusJobAssinatura.EM_EXECUCAO, StatusJobAssinatura.PENDENTE, LocalDateTime.now()));
+        if (recuperados != null && recuperados > 0) {
+            log.info("{} job(s) de assinatura interrompido(s) voltaram para a fila", recuperados);
+        }
+    }
+
+    /**
+     * Varredura de segurança: redispara pendentes que não entraram no pool (fila cheia ou reinício).
+     */
+    @Scheduled(fixedDelayString = "${siae.jobs.varredura-ms:60000}")
+    public void dispararPendentes() {
+        LocalDateTime limite = LocalDateTime.now().minusSeconds(30);
+        for (JobAssinatura job : jobRepository.findByStatusAndDataAtualizacaoBeforeOrderByIdAsc(StatusJobAssinatura.PENDENTE, limite)) {
+            disparar(job.getId());
+        }
+    }
+
+    private void disparar(Long id) {
+        try {
+            executor.execute(() -> executar(id));
+        } catch (TaskRejectedException e) {
+            // Fila cheia: o job continua PENDENTE e será pego na próxima varredura
+            log.warn("Pool de jobs de assinatura cheio; job {} aguardará a próxima varredura", id);
+        }
+    }
+
+    private void notificar(Long id) {
+        List<SseEmitter> lista = inscritos.get(id);
+        if (lista == null || lista.isEmpty()) {
+            return;
+        }
+        JobAssinaturaDTO atual;
+        try {
+            atual = buscarPorId(id);
+        } catch (Exception e) {
+            // Sem o status não há o que enviar; encerra os canais para o cliente voltar a consultar
+            log.warn("Não foi possível ler o status do job {} para notificar: {}", id, e.getMessage());
+            inscritos.remove(id);
+            lista.forEach(emitter -> emitter.completeWithError(e));
+            return;
+        }
+        for (SseEmitter emitter : lista) {
+            try {
+                emitter.send(SseEmitter.event().name("status").data(atual));
+                if (terminado(atual.getStatus())) {
+                    emitter.complete();
+                }
+            } catch (Exception e) {
+                lista.remove(emitter);
+            }
+        }
+        if (terminado(atual.getStatus())) {
+            inscritos.remove(id);
+        }
+    }
+
+    private boolean terminado(StatusJobAssinatura status) {
+        return status == StatusJobAssinatura.CONCLUIDO || status == StatusJobAssinatura.ERRO;
+    }
+
+    private void excluirCopiaLocal(String caminho) {
+        try {
+            Files.deleteIfExists(Paths.get(caminho));
+        } catch (IOException e) {
+            log.warn("Não foi possível remover o arquivo temporário {}", caminho);
+        }
+    }
+}
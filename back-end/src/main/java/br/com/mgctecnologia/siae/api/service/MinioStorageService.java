@@ -1,61 +1,403 @@
 package br.com.mgctecnologia.siae.api.service;
 
-import io.minio.*;
-import io.minio.http.Method;
+import br.com.mgctecnologia.siae.api.cache.CacheDisco;
+import br.com.mgctecnologia.siae.api.cache.CacheLRU;
+import br.com.mgctecnologia.siae.api.storage.DocumentStorage;
+import br.com.mgctecnologia.siae.api.storage.InfoObjeto;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.concurrent.TimeUnit;
-
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
+/**
+ * Ponto único de acesso aos documentos armazenados. As operações vão para o {@link DocumentStorage}
+ * configurado (MinIO ou disco local); aqui ficam o cache de URLs, o cache em disco e as medições.
+ */
 @Service
 public class MinioStorageService {
 
+    private static final Logger log = LoggerFactory.getLogger(MinioStorageService.class);
+
+    @Autowired
+    private DocumentStorage storage;
+
+    @Autowired
+    private TemporizadorEtapas temporizador;
+
+    private static final Duration VALIDADE_URL = Duration.ofHours(2);
+
     @Autowired
-    private MinioClient minioClient;
+    private MeterRegistry meterRegistry;
+
+    @Value("${siae.minio.url-cache.maximo:10000}")
+    private int maximoUrlsEmCache;
+
+    @Value("${siae.minio.url-cache.validade-minutos:90}")
+    private long validadeUrlEmCacheMinutos;
+
+    // URLs pré-assinadas por nome de objeto; cada entrada expira bem antes do próprio link
+    private CacheLRU<String, String> urlsAssinadas;
+
+    @Value("${siae.minio.cache-disco.habilitado:true}")
+    private boolean cacheDiscoHabilitado;
+
+    @Value("${siae.minio.cache-disco.diretorio:${user.home}/.siae/cache-objetos}")
+    private String diretorioCacheDisco;
+
+    @Value("${siae.minio.cache-disco.maximo-mb:2048}")
+    private long maximoCacheDiscoMb;
+
+    // Objetos maiores que isto sempre vêm do MinIO (não expulsam o resto do cache)
+    @Value("${siae.minio.cache-disco.objeto-maximo-mb:100}")
+    private long maximoObjetoCacheDiscoMb;
 
-    @Value("${minio.bucket.name}")
-    private String bucketName;
+    // Conteúdo dos objetos em disco local, por nome + ETag; null quando desabilitado
+    private CacheDisco cacheDisco;
+
+    @PostConstruct
+    void criarCaches() {
+        Duration validade = Duration.ofMinutes(validadeUrlEmCacheMinutos);
+        if (validade.isZero() || validade.isNegative() || validade.compareTo(VALIDADE_URL.minusMinutes(30)) > 0) {
+            // Quem recebe a URL precisa de margem para usá-la antes das 2 horas
+            validade = VALIDADE_URL.minusMinutes(30);
+        }
+        urlsAssinadas = new CacheLRU<String, String>("url-assinada", maximoUrlsEmCache, validade)
+                .registrarMetricas(meterRegistry);
+
+        // Com o backend em disco local o cache só duplicaria os arquivos
+        if (cacheDiscoHabilitado && !storage.ehLocal()) {
+            try {
+                cacheDisco = new CacheDisco("objetos-disco", Paths.get(diretorioCacheDisco), maximoCacheDiscoMb * 1024 * 1024)
+                        .registrarMetricas(meterRegistry);
+            } catch (Exception e) {
+                log.warn("Cache de objetos em disco desabilitado ({}): {}", diretorioCacheDisco, e.getMessage());
+            }
+        }
+    }
 
     public String uploadFile(MultipartFile file, String objectName) {
         try {
-            // Garante que o bucket existe
-            boolean found = minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build());
-            if (!found) {
-                minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build());
+            storage.gravar(objectName, file.getContentType(), file.getSize(), file::getInputStream);
+
+            return objectName; // Retorna o nome do objeto que foi salvo
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao fazer upload para o armazenamento: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Envia um arquivo do disco em stream, com tamanho conhecido (sem buffer de partes em memória).
+     */
+    public String uploadFile(Path arquivo, String contentType, String objectName) {
+        try {
+            storage.gravar(objectName, contentType != null ? contentType : "application/pdf", Files.size(arquivo),
+                    () -> Files.newInputStream(arquivo));
+            return objectName;
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao fazer upload para o armazenamento: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Copia o objeto para um arquivo local (usado antes de assinar ou verificar documentos já armazenados).
+     * Com o objeto no cache em disco a cópia é arquivo para arquivo, sem passar pelo MinIO.
+     */
+    public void baixarParaArquivo(String objectName, Path destino) {
+        InfoObjeto info = cacheDisco != null ? consultarObjeto(objectName).orElse(null) : null;
+        if (info != null && cacheavel(info)) {
+            FileChannel canal = cacheDisco.abrir(chaveCache(objectName, info));
+            try {
+                if (canal != null) {
+                    try (canal; FileChannel saida = FileChannel.open(destino, StandardOpenOption.WRITE,
+                            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                        enviarDoDisco(canal, 0, info.tamanho(), saida);
+                    }
+                    cacheDisco.economizou(info.tamanho());
+                } else {
+                    try (InputStream in = copiandoParaCache(abrir(objectName, 0, null), chaveCache(objectName, info))) {
+                        Files.copy(in, destino, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                return;
+            } catch (IOException e) {
+                throw new RuntimeException("Erro ao baixar do armazenamento: " + e.getMessage());
             }
+        }
+        baixarDaOrigem(objectName, destino);
+    }
 
-            // Realiza o upload do arquivo
-            minioClient.putObject(
-                    PutObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(objectName) // Nome único do arquivo
-                            .stream(file.getInputStream(), file.getSize(), -1)
-                            .contentType(file.getContentType())
-                            .build());
+    private void baixarDaOrigem(String objectName, Path destino) {
+        long inicio = System.nanoTime();
+        try (InputStream in = storage.ler(objectName, 0, null)) {
+            Files.copy(in, destino, StandardCopyOption.REPLACE_EXISTING);
+            temporizador.registrar("storage-get", System.nanoTime() - inicio);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao baixar do armazenamento: " + e.getMessage());
+        }
+    }
 
-            return objectName; // Retorna o nome do objeto que foi salvo
+    /**
+     * Política de upload (POST de formulário) para o navegador enviar direto ao armazenamento.
+     * Só aceita exatamente esse objeto e o tamanho limite; retorna os campos do formulário,
+     * já incluindo "key" (e "Content-Type", se informado). Exige o backend MinIO.
+     */
+    public Map<String, String> gerarPoliticaUpload(String objectName, String contentType, long tamanhoMaximo,
+                                                   ZonedDateTime expiraEm) {
+        if (!storage.suportaUploadDireto()) {
+            throw new IllegalStateException("Upload direto indisponível com o armazenamento " + storage.descricao()
+                    + "; envie o arquivo pela API.");
+        }
+        try {
+            return storage.gerarPoliticaUpload(objectName, contentType, tamanhoMaximo, expiraEm);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao gerar política de upload: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Endereço para onde o formulário da política de upload deve ser enviado.
+     */
+    public String getUrlUpload() {
+        return storage.getUrlUpload();
+    }
+
+    /**
+     * Tamanho do objeto armazenado, ou vazio se ele não existe (um único HEAD).
+     */
+    public Optional<Long> tamanhoObjeto(String objectName) {
+        return consultarObjeto(objectName).map(InfoObjeto::tamanho);
+    }
+
+    /**
+     * Metadados do objeto armazenado (tamanho, ETag, tipo e data), ou vazio se ele não existe.
+     */
+    public Optional<InfoObjeto> consultarObjeto(String objectName) {
+        try {
+            return storage.consultar(objectName);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao consultar objeto no armazenamento: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Abre o conteúdo a partir de {@code inicio}; com {@code tamanho} nulo lê até o fim.
+     * Só o trecho pedido é lido (no MinIO, GET com Range).
+     */
+    public InputStream abrir(String objectName, long inicio, Long tamanho) {
+        try {
+            return storage.ler(objectName, inicio, tamanho);
         } catch (Exception e) {
-            throw new RuntimeException("Erro ao fazer upload para o MinIO: " + e.getMessage());
+            throw new RuntimeException("Erro ao baixar do armazenamento: " + e.getMessage());
         }
     }
 
+    /**
+     * Escreve o trecho [inicio, inicio + tamanho) do objeto na saída (tamanho nulo = até o fim).
+     * Do cache em disco sai por FileChannel.transferTo. Fora dele, um trecho parcial vai direto
+     * da origem com Range (o visualizador de PDF só pede as páginas que mostra); só a leitura
+     * completa alimenta o cache.
+     */
+    public void transferir(String objectName, InfoObjeto info, long inicio, Long tamanho, OutputStream saida) throws IOException {
+        long comprimento = tamanho != null ? tamanho : info.tamanho() - inicio;
+        FileChannel canal = cacheavel(info) ? cacheDisco.abrir(chaveCache(objectName, info)) : null;
+        if (canal == null) {
+            InputStream origem = abrir(objectName, inicio, tamanho);
+            boolean completo = cacheavel(info) && comprimento == info.tamanho();
+            try (InputStream in = completo ? copiandoParaCache(origem, chaveCache(objectName, info)) : origem) {
+                in.transferTo(saida);
+            }
+            return;
+        }
+
+        cacheDisco.economizou(comprimento);
+        try (canal) {
+            enviarDoDisco(canal, inicio, comprimento, Channels.newChannel(saida));
+        }
+    }
+
+    private boolean cacheavel(InfoObjeto info) {
+        return cacheDisco != null && info.etag() != null && info.tamanho() <= maximoObjetoCacheDiscoMb * 1024 * 1024;
+    }
+
+    // O ETag muda quando o objeto é regravado, então uma versão antiga nunca é servida
+    private static String chaveCache(String objectName, InfoObjeto info) {
+        return objectName + "\n" + info.etag();
+    }
+
+    private static void enviarDoDisco(FileChannel canal, long inicio, long comprimento, WritableByteChannel destino)
+            throws IOException {
+        long posicao = inicio;
+        long fim = inicio + comprimento;
+        while (posicao < fim) {
+            long enviados = canal.transferTo(posicao, fim - posicao, destino);
+            if (enviados <= 0) {
+                throw new IOException("Arquivo em cache menor que o esperado.");
+            }
+            posicao += enviados;
+        }
+    }
+
+    private InputStream copiandoParaCache(InputStream origem, String chave) {
+        try {
+            return new CopiaParaCacheInputStream(origem, cacheDisco, chave, cacheDisco.novoTemporario());
+        } catch (IOException e) {
+            log.debug("Sem espaço para o cache em disco: {}", e.getMessage());
+            return origem;
+        }
+    }
+
+    /**
+     * Repassa a leitura da origem e grava uma cópia num temporário do cache; se o conteúdo foi
+     * lido até o fim, a cópia entra no cache ao fechar. Falha na cópia só desliga a cópia.
+     */
+    private static class CopiaParaCacheInputStream extends InputStream {
+
+        private final InputStream origem;
+        private final CacheDisco cache;
+        private final String chave;
+        private final Path temporario;
+        private OutputStream copia;
+        private boolean completo;
+
+        CopiaParaCacheInputStream(InputStream origem, CacheDisco cache, String chave, Path temporario) throws IOException {
+            this.origem = origem;
+            this.cache = cache;
+            this.chave = chave;
+            this.temporario = temporario;
+            this.copia = Files.newOutputStream(temporario);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] um = new byte[1];
+            return read(um, 0, 1) < 0 ? -1 : um[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int lidos = origem.read(b, off, len);
+            if (lidos < 0) {
+                completo = true;
+            } else if (copia != null) {
+                try {
+                    copia.write(b, off, lidos);
+                } catch (IOException e) {
+                    abandonarCopia();
+                }
+            }
+            return lidos;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                origem.close();
+            } finally {
+                if (copia != null && completo) {
+                    try {
+                        copia.close();
+                        copia = null;
+                        cache.adicionar(chave, temporario);
+                    } catch (IOException e) {
+                        log.debug("Objeto não entrou no cache em disco: {}", e.getMessage());
+                    }
+                }
+                abandonarCopia();
+            }
+        }
+
+        private void abandonarCopia() {
+            try {
+                if (copia != null) copia.close();
+                Files.deleteIfExists(temporario);
+            } catch (IOException ignorada) {
+                // Temporário órfão é apagado na próxima subida
+            }
+            copia = null;
+        }
+    }
+
+    /**
+     * Objetos sob o prefixo (recursivo), com o tamanho de cada um.
+     */
+    public Map<String, Long> listarObjetos(String prefixo) {
+        try {
+            return storage.listar(prefixo);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao listar objetos no armazenamento: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Junta as partes em um objeto só, dentro do próprio armazenamento (os bytes não passam pela API).
+     * No MinIO todas as partes, exceto a última, precisam ter pelo menos 5 MB.
+     */
+    public void comporObjeto(List<String> partes, String objectName, String contentType) {
+        try {
+            storage.compor(partes, objectName, contentType);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao compor objeto no armazenamento: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Escreve o conteúdo do objeto no stream informado (que continua aberto).
+     */
+    public void copiarPara(String objectName, OutputStream destino) {
+        try (InputStream in = storage.ler(objectName, 0, null)) {
+            in.transferTo(destino);
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao baixar do armazenamento: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Remoção em lote; falhas individuais são só registradas (limpeza de temporários).
+     */
+    public void removerObjetos(Collection<String> objetos) {
+        if (objetos.isEmpty()) {
+            return;
+        }
+        storage.remover(objetos);
+    }
+
     public String getPresignedUrl(String objectName) {
         // Se o caminho for nulo ou vazio, retorna null (sem link)
         if (objectName == null || objectName.trim().isEmpty()) {
             return null;
         }
 
+        String emCache = urlsAssinadas.obter(objectName);
+        if (emCache != null) {
+            return emCache;
+        }
+
         try {
-            return minioClient.getPresignedObjectUrl(
-                    GetPresignedObjectUrlArgs.builder()
-                            .method(Method.GET)
-                            .bucket(bucketName)
-                            .object(objectName)
-                            .expiry(2, TimeUnit.HOURS) // Link válido por 2 horas
-                            .build());
+            String url = storage.gerarUrlLeitura(objectName, VALIDADE_URL); // Link válido por 2 horas
+            urlsAssinadas.colocar(objectName, url);
+            return url;
         } catch (Exception e) {
             // Logar o erro é boa prática, mas aqui vamos retornar null para não quebrar a lista inteira
             System.err.println("Erro ao gerar URL para: " + objectName + " - " + e.getMessage());
@@ -0,0 +1,202 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.model.DocsAnexados;
+import br.com.mgctecnologia.siae.api.model.TipoDocumento;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Envio dos anexos de uma operação de processo: cada anexo (upload simples ou assinatura + upload)
+ * roda em paralelo no pool de anexos e todos são aguardados antes de gravar o processo.
+ * Se algum falha, ou se a transação é desfeita depois, os objetos já enviados são removidos.
+ */
+@Service
+public class PipelineAnexos {
+
+    private static final Logger log = LoggerFactory.getLogger(PipelineAnexos.class);
+
+    private final MinioStorageService minioService;
+    private final AssinaturaDigitalService assinaturaService;
+    private final TemporizadorEtapas temporizador;
+    private final ArmazenamentoDeduplicadoService deduplicado;
+    private final ThreadPoolTaskExecutor executor;
+
+    // Com deduplicação o anexo vai para blobs/{sha256} e o nome sugerido pela operação é ignorado
+    @Value("${siae.storage.dedup.habilitado:false}")
+    private boolean deduplicar;
+
+    public PipelineAnexos(MinioStorageService minioService,
+                          AssinaturaDigitalService assinaturaService,
+                          TemporizadorEtapas temporizador,
+                          ArmazenamentoDeduplicadoService deduplicado,
+                          @Qualifier("anexosExecutor") ThreadPoolTaskExecutor executor) {
+        this.minioService = minioService;
+        this.assinaturaService = assinaturaService;
+        this.temporizador = temporizador;
+        this.deduplicado = deduplicado;
+        this.executor = executor;
+    }
+
+    public Execucao iniciar() {
+        return new Execucao();
+    }
+
+    /**
+     * Anexos de uma única operação. Não é thread-safe: é usada só pela thread da requisição.
+     */
+    public class Execucao {
+
+        // O futuro devolve o nome do objeto efetivamente gravado
+        private record Etapa(TipoDocumento tipo, String descricaoErro, CompletableFuture<String> futuro) {}
+
+        private final List<Etapa> etapas = new ArrayList<>();
+
+        // Depois de concluir (ou descartar) a compensação já está feita ou agendada
+        private boolean encerrada;
+
+        public void enviar(TipoDocumento tipo, MultipartFile arquivo, String objectName, String descricaoErro) {
+            etapas.add(new Etapa(tipo, descricaoErro, CompletableFuture.supplyAsync(() -> {
+                try {
+                    return deduplicar ? deduplicado.armazenar(arquivo) : minioService.uploadFile(arquivo, objectName);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor)));
+        }
+
+        public void assinarEEnviar(TipoDocumento tipo, MultipartFile arquivo, String objectName, String descricaoErro) {
+            etapas.add(new Etapa(tipo, descricaoErro, CompletableFuture.supplyAsync(() -> {
+                try {
+                    if (deduplicar) {
+                        return deduplicado.armazenarAssinado(arquivo);
+                    }
+                    assinarEArmazenar(arquivo, objectName);
+                    return objectName;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor)));
+        }
+
+        /**
+         * Desiste da operação (falha antes de concluir): aguarda as etapas e remove o que foi enviado.
+         * Não faz nada se a execução já foi concluída ou descartada.
+         */
+        public void descartar() {
+            if (encerrada) {
+                return;
+            }
+            encerrada = true;
+            List<String> enviados = new ArrayList<>();
+            for (Etapa etapa : etapas) {
+                try {
+                    enviados.add(etapa.futuro().join());
+                } catch (CompletionException ignorada) {
+                    // Nada foi enviado por esta etapa
+                }
+            }
+            desfazer(enviados);
+        }
+
+        /**
+         * Aguarda todas as etapas. Com alguma falha, remove o que as demais enviaram e relança a
+         * primeira falha; sem falhas, vincula os objetos em docs e agenda a remoção para o caso
+         * de a transação atual ser desfeita.
+         */
+        public void concluir(DocsAnexados docs) {
+            encerrada = true;
+            List<String> enviados = new ArrayList<>();
+            RuntimeException falha = null;
+            for (Etapa etapa : etapas) {
+                try {
+                    enviados.add(etapa.futuro().join());
+                } catch (CompletionException e) {
+                    if (falha == null) {
+                        Throwable causa = e.getCause() != null ? e.getCause() : e;
+                        if (etapa.descricaoErro() != null) {
+                            falha = new RuntimeException(etapa.descricaoErro() + ": " + causa.getMessage(), causa);
+                        } else {
+                            falha = causa instanceof RuntimeException r ? r : new RuntimeException(causa.getMessage(), causa);
+                        }
+                    }
+                }
+            }
+
+            if (falha != null) {
+                desfazer(enviados);
+                throw falha;
+            }
+
+            // Referências a blobs substituídas por esta operação são soltas só depois do commit
+            List<String> substituidos = new ArrayList<>();
+            for (int i = 0; i < etapas.size(); i++) {
+                String anterior = etapas.get(i).tipo().obter(docs);
+                if (ArmazenamentoDeduplicadoService.ehBlob(anterior) && !anterior.equals(enviados.get(i))) {
+                    substituidos.add(anterior);
+                }
+                etapas.get(i).tipo().definir(docs, enviados.get(i));
+            }
+
+            if (!enviados.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == STATUS_COMMITTED) {
+                            substituidos.forEach(deduplicado::liberar);
+                        } else if (status == STATUS_ROLLED_BACK) {
+                            log.warn("Transação desfeita; removendo {} anexo(s) já enviados", enviados.size());
+                            desfazer(enviados);
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Compensação: objetos comuns são apagados; blobs deduplicados só perdem a referência
+     * (outro processo pode estar usando o mesmo conteúdo) e ficam para o coletor.
+     */
+    private void desfazer(List<String> enviados) {
+        List<String> remover = new ArrayList<>();
+        for (String objeto : enviados) {
+            if (ArmazenamentoDeduplicadoService.ehBlob(objeto)) {
+                deduplicado.liberar(objeto);
+            } else {
+                remover.add(objeto);
+            }
+        }
+        minioService.removerObjetos(remover);
+    }
+
+    /**
+     * Assina o PDF enviado e o armazena no MinIO passando só por arquivos temporários,
+     * para que documentos grandes não fiquem inteiros (e duplicados) no heap.
+     */
+    private void assinarEArmazenar(MultipartFile arquivoOriginal, String objectName) throws Exception {
+        Path original = Files.createTempFile("siae-original-", ".pdf");
+        Path assinado = Files.createTempFile("siae-assinado-", ".pdf");
+        try {
+            temporizador.cronometrar("spool", () -> arquivoOriginal.transferTo(original));
+            assinaturaService.assinarArquivo(original, assinado);
+            minioService.uploadFile(assinado, arquivoOriginal.getContentType(), objectName);
+        } finally {
+            Files.deleteIfExists(original);
+            Files.deleteIfExists(assinado);
+        }
+    }
+}
@@ -6,7 +6,10 @@ import br.com.mgctecnologia.siae.api.model.ProcessoDigital.ProcessoDigital;
 import br.com.mgctecnologia.siae.api.model.ProcessoDigital.Setor;
 import br.com.mgctecnologia.siae.api.model.ProcessoDigital.Status;
 import br.com.mgctecnologia.siae.api.model.ServidorPublico;
+import br.com.mgctecnologia.siae.api.model.TipoDocumento;
 import br.com.mgctecnologia.siae.api.repository.ProcessoDigitalRepository;
+import br.com.mgctecnologia.siae.api.repository.ProcessoDigitalRepositoryCustom.Cursor;
+import br.com.mgctecnologia.siae.api.repository.ProcessoListagem;
 import br.com.mgctecnologia.siae.api.repository.ServidorPublicoRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,10 +17,15 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -25,6 +33,16 @@ import java.util.stream.Collectors;
 @Service
 public class ProcessoDigitalService {
 
+    // Limite da consulta de links em lote (GET /processos/links?ids=...)
+    private static final int MAXIMO_LINKS_POR_CONSULTA = 200;
+
+    // Limite de itens por página da listagem paginada (GET /processos/pagina)
+    private static final int TAMANHO_MAXIMO_PAGINA = 200;
+
+    // Busca textual: resultados além deste ponto pedem uma busca mais específica
+    private static final int MAXIMO_RESULTADOS_BUSCA = 1000;
+    private static final int TAMANHO_MAXIMO_CONSULTA = 200;
+
     @Autowired
     private ProcessoDigitalRepository processoDigitalRepository;
 
@@ -35,63 +53,85 @@ public class ProcessoDigitalService {
     private MinioStorageService minioService;
 
     @Autowired
-    private AssinaturaDigitalService assinaturaService;
+    private JobAssinaturaService jobAssinaturaService;
+
+    @Autowired
+    private TemporizadorEtapas temporizador;
+
+    @Autowired
+    private PipelineAnexos pipelineAnexos;
+
+    @Autowired
+    private CacheVisaoProcessos cacheVisoes;
+
+    @Autowired
+    private IndiceNomesServidores indiceNomes;
+
+    // Assinatura adiada para um job: o arquivo é copiado na transação e assinado depois do commit
+    private record AssinaturaPendente(TipoDocumento tipo, MultipartFile arquivo, String objectName) {}
 
     @Transactional
     public ProcessoDigital criarNovoProcesso(ProcessoDigitalDTO dto) {
+        return criarNovoProcesso(dto, null);
+    }
+
+    /**
+     * Cria o processo sem assinar na requisição: os anexos que exigem assinatura viram jobs.
+     */
+    @Transactional
+    public ProcessoAssincronoResponseDTO criarNovoProcessoAssincrono(ProcessoDigitalDTO dto) {
+        List<AssinaturaPendente> pendentes = new ArrayList<>();
+        ProcessoDigital processo = criarNovoProcesso(dto, pendentes);
+        return agendarAssinaturas(processo.getId_processo(), pendentes);
+    }
+
+    private ProcessoDigital criarNovoProcesso(ProcessoDigitalDTO dto, List<AssinaturaPendente> pendentes) {
         DocsAnexados docs = new DocsAnexados();
         // Garante um prefixo único para a pasta do processo
         String processoPrefix = "processo-" + UUID.randomUUID().toString() + "/";
+        PipelineAnexos.Execucao anexos = pipelineAnexos.iniciar();
+        try {
+            // 1. Requerimento (Upload simples)
+            if (dto.getReqPessoa() != null && !dto.getReqPessoa().isEmpty()) {
+                String safeFilename = sanitizeFilename(dto.getReqPessoa().getOriginalFilename());
+                String objectName = processoPrefix + "reqPessoa-" + safeFilename;
+                anexos.enviar(TipoDocumento.REQ_PESSOA, dto.getReqPessoa(), objectName, null);
+            }
 
-        // 1. Requerimento (Upload simples)
-        if (dto.getReqPessoa() != null && !dto.getReqPessoa().isEmpty()) {
-            String safeFilename = sanitizeFilename(dto.getReqPessoa().getOriginalFilename());
-            String objectName = processoPrefix + "reqPessoa-" + safeFilename;
-            minioService.uploadFile(dto.getReqPessoa(), objectName);
-            docs.setReqPessoa(objectName);
-        }
-
-        // 2. Memorando de Solicitação (COM ASSINATURA)
-        if (dto.getMemSolicitacaoJur() != null && !dto.getMemSolicitacaoJur().isEmpty()) {
-            try {
+            // 2. Memorando de Solicitação (COM ASSINATURA)
+            if (dto.getMemSolicitacaoJur() != null && !dto.getMemSolicitacaoJur().isEmpty()) {
                 MultipartFile arquivoOriginal = dto.getMemSolicitacaoJur();
                 String safeFilename = sanitizeFilename(arquivoOriginal.getOriginalFilename());
                 String objectName = processoPrefix + "memSolicitacaoJur-ASSINADO-" + safeFilename;
 
-                // Chama o serviço para assinar (criptografar) os bytes
-                byte[] bytesAssinados = assinaturaService.assinarDocumento(arquivoOriginal.getBytes());
-
-                // Reconstrói o MultipartFile com os dados processados
-                MultipartFile arquivoAssinado = new BytesMultipartFile(
-                        bytesAssinados,
-                        arquivoOriginal.getOriginalFilename(),
-                        arquivoOriginal.getContentType()
-                );
+                // Assina (criptografa) e envia ao MinIO em paralelo com o requerimento, ou agenda o job
+                anexarAssinado(anexos, TipoDocumento.MEM_SOLICITACAO_JUR, arquivoOriginal, objectName,
+                        "Erro ao assinar Memorando Inicial", pendentes);
+            }
 
-                minioService.uploadFile(arquivoAssinado, objectName);
-                docs.setMemSolicitacaoJur(objectName);
+            ProcessoDigital processo = new ProcessoDigital();
 
-            } catch (Exception e) {
-                // Relança como RuntimeException para o Controller capturar
-                throw new RuntimeException("Erro ao assinar Memorando Inicial: " + e.getMessage(), e);
+            if (dto.getServidorPublico() != null) {
+                ServidorPublico servidorVinculado = buscarOuSalvarServidor(dto.getServidorPublico());
+                processo.setServidorPublico(servidorVinculado);
             }
-        }
 
-        ProcessoDigital processo = new ProcessoDigital();
+            processo.setEstimativa(dto.getEstimativa());
+            processo.setSetor(dto.getSetor());
+            processo.setDataAbertura(dto.getDataAbertura());
+            processo.setAssunto(dto.getAssunto());
+            processo.setDataPrevisao(calcularDiasUteis(processo.getDataAbertura(), dto.getEstimativa()));
 
-        if (dto.getServidorPublico() != null) {
-            ServidorPublico servidorVinculado = buscarOuSalvarServidor(dto.getServidorPublico());
-            processo.setServidorPublico(servidorVinculado);
-        }
-
-        processo.setEstimativa(dto.getEstimativa());
-        processo.setSetor(dto.getSetor());
-        processo.setDataAbertura(dto.getDataAbertura());
-        processo.setAssunto(dto.getAssunto());
-        processo.setDataPrevisao(calcularDiasUteis(processo.getDataAbertura(), dto.getEstimativa()));
-        processo.setDocsAnexados(docs);
+            // Os anexos rodaram enquanto o processo era montado; só grava depois de todos concluídos
+            anexos.concluir(docs);
+            processo.setDocsAnexados(docs);
 
-        return processoDigitalRepository.save(processo);
+            return salvar(processo);
+        } catch (RuntimeException e) {
+            // Qualquer falha antes do vínculo remove o que já foi enviado
+            anexos.descartar();
+            throw e;
+        }
     }
 
     private ServidorPublico buscarOuSalvarServidor(ServidorPublico servidorInput) {
@@ -100,7 +140,11 @@ public class ProcessoDigitalService {
         }
         Optional<ServidorPublico> existente = servidorPublicoRepository
                 .findByNomeCompletoAndTelefone(servidorInput.getNomeCompleto(), servidorInput.getTelefone());
-        return existente.orElseGet(() -> servidorPublicoRepository.save(servidorInput));
+        return existente.orElseGet(() -> {
+            ServidorPublico novo = servidorPublicoRepository.save(servidorInput);
+            indiceNomes.atualizarAposCommit(novo);
+            return novo;
+        });
     }
 
     @Transactional
@@ -116,11 +160,22 @@ public class ProcessoDigitalService {
         processo.setObservacaoCancelamento(observacao);
         processo.setDataFechamento(LocalDate.now());
 
-        return converterParaDTO(processoDigitalRepository.save(processo));
+        return converterParaDTO(salvar(processo));
     }
 
     @Transactional
     public ProcessoDigitalResponseDTO transferirProcesso(Long id, TransferenciaSetorDTO dto) {
+        return converterParaDTO(transferirProcesso(id, dto, null));
+    }
+
+    @Transactional
+    public ProcessoAssincronoResponseDTO transferirProcessoAssincrono(Long id, TransferenciaSetorDTO dto) {
+        List<AssinaturaPendente> pendentes = new ArrayList<>();
+        transferirProcesso(id, dto, pendentes);
+        return agendarAssinaturas(id, pendentes);
+    }
+
+    private ProcessoDigital transferirProcesso(Long id, TransferenciaSetorDTO dto, List<AssinaturaPendente> pendentes) {
         ProcessoDigital processo = processoDigitalRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Processo não encontrado: " + id));
 
@@ -131,55 +186,38 @@ public class ProcessoDigitalService {
         }
 
         String processoPrefix = "processo-id-" + id + "/transferencia/";
-
-        // 1. Parecer Jurídico
-        if (dto.getParecerJuridico() != null && !dto.getParecerJuridico().isEmpty()) {
-            try {
-                byte[] bytesAssinados = assinaturaService.assinarDocumento(dto.getParecerJuridico().getBytes());
-
+        PipelineAnexos.Execucao anexos = pipelineAnexos.iniciar();
+        try {
+            // 1. Parecer Jurídico
+            if (dto.getParecerJuridico() != null && !dto.getParecerJuridico().isEmpty()) {
                 String safeName = sanitizeFilename(dto.getParecerJuridico().getOriginalFilename());
-                MultipartFile arquivoAssinado = new BytesMultipartFile(
-                        bytesAssinados,
-                        safeName,
-                        dto.getParecerJuridico().getContentType()
-                );
-
                 String objectName = processoPrefix + "parecer-ASSINADO-" + safeName;
-                minioService.uploadFile(arquivoAssinado, objectName);
-                docs.setParecerJuridico(objectName);
-            } catch (Exception e) {
-                throw new RuntimeException("Erro ao assinar Parecer Jurídico: " + e.getMessage());
+                anexarAssinado(anexos, TipoDocumento.PARECER_JURIDICO, dto.getParecerJuridico(), objectName,
+                        "Erro ao assinar Parecer Jurídico", pendentes);
             }
-        }
-
-        // 2. Memorando do Prefeito
-        if (dto.getMemorandoPref() != null && !dto.getMemorandoPref().isEmpty()) {
-            try {
-                byte[] bytesAssinados = assinaturaService.assinarDocumento(dto.getMemorandoPref().getBytes());
 
+            // 2. Memorando do Prefeito (assinado em paralelo com o parecer)
+            if (dto.getMemorandoPref() != null && !dto.getMemorandoPref().isEmpty()) {
                 String safeName = sanitizeFilename(dto.getMemorandoPref().getOriginalFilename());
-                MultipartFile arquivoAssinado = new BytesMultipartFile(
-                        bytesAssinados,
-                        safeName,
-                        dto.getMemorandoPref().getContentType()
-                );
-
                 String objectName = processoPrefix + "memorandoPref-ASSINADO-" + safeName;
-                minioService.uploadFile(arquivoAssinado, objectName);
-                docs.setMemorandoPref(objectName);
-            } catch (Exception e) {
-                throw new RuntimeException("Erro ao assinar Memorando do Prefeito: " + e.getMessage());
+                anexarAssinado(anexos, TipoDocumento.MEMORANDO_PREF, dto.getMemorandoPref(), objectName,
+                        "Erro ao assinar Memorando do Prefeito", pendentes);
             }
-        }
 
-        if (processo.getStatus() == Status.Em_Processamento_Juridico) {
-            processo.setStatus(Status.Em_Processamento_Prefeito);
-        }
-        if (processo.getSetor() == Setor.JURIDICO){
-            processo.setSetor(Setor.GABINETE);
-        }
+            anexos.concluir(docs);
+
+            if (processo.getStatus() == Status.Em_Processamento_Juridico) {
+                processo.setStatus(Status.Em_Processamento_Prefeito);
+            }
+            if (processo.getSetor() == Setor.JURIDICO){
+                processo.setSetor(Setor.GABINETE);
+            }
 
-        return converterParaDTO(processoDigitalRepository.save(processo));
+            return salvar(processo);
+        } catch (RuntimeException e) {
+            anexos.descartar();
+            throw e;
+        }
     }
 
     // Em ProcessoDigitalService.java
@@ -210,6 +248,9 @@ public class ProcessoDigitalService {
                 // mantendo o mesmo ID_SERVIDOR.
                 servidorAtual.setNomeCompleto(servidorInput.getNomeCompleto());
                 servidorAtual.setTelefone(servidorInput.getTelefone());
+                // O servidor é compartilhado: as visões de todos os processos dele mudam
+                cacheVisoes.invalidarTudoAposCommit();
+                indiceNomes.atualizarAposCommit(servidorAtual);
 
                 // Não precisa chamar repository.save(servidorAtual) explicitamente
                 // pois o processo tem CascadeType.ALL
@@ -227,41 +268,45 @@ public class ProcessoDigitalService {
         }
 
         String processoPrefix = "processo-" + processo.getId_processo() + "/atualizacao/";
+        PipelineAnexos.Execucao anexos = pipelineAnexos.iniciar();
+        try {
+            if (dto.getReqPessoa() != null && !dto.getReqPessoa().isEmpty()) {
+                String safeFilename = sanitizeFilename(dto.getReqPessoa().getOriginalFilename());
+                String objectName = processoPrefix + "reqPessoa-" + safeFilename;
+                anexos.enviar(TipoDocumento.REQ_PESSOA, dto.getReqPessoa(), objectName, null);
+            }
 
-        if (dto.getReqPessoa() != null && !dto.getReqPessoa().isEmpty()) {
-            String safeFilename = sanitizeFilename(dto.getReqPessoa().getOriginalFilename());
-            String objectName = processoPrefix + "reqPessoa-" + safeFilename;
-            minioService.uploadFile(dto.getReqPessoa(), objectName);
-            docs.setReqPessoa(objectName);
-        }
-
-        if (dto.getMemSolicitacaoJur() != null && !dto.getMemSolicitacaoJur().isEmpty()) {
-            try {
+            if (dto.getMemSolicitacaoJur() != null && !dto.getMemSolicitacaoJur().isEmpty()) {
                 MultipartFile arquivoOriginal = dto.getMemSolicitacaoJur();
                 String safeFilename = sanitizeFilename(arquivoOriginal.getOriginalFilename());
                 String objectName = processoPrefix + "memSolicitacaoJur-ASSINADO-" + safeFilename;
 
-                byte[] bytesAssinados = assinaturaService.assinarDocumento(arquivoOriginal.getBytes());
-
-                MultipartFile arquivoAssinado = new BytesMultipartFile(
-                        bytesAssinados,
-                        arquivoOriginal.getOriginalFilename(),
-                        arquivoOriginal.getContentType()
-                );
+                anexarAssinado(anexos, TipoDocumento.MEM_SOLICITACAO_JUR, arquivoOriginal, objectName,
+                        "Erro ao assinar e atualizar Memorando", null);
+            }
 
-                minioService.uploadFile(arquivoAssinado, objectName);
-                docs.setMemSolicitacaoJur(objectName);
+            anexos.concluir(docs);
 
-            } catch (Exception e) {
-                throw new RuntimeException("Erro ao assinar e atualizar Memorando: " + e.getMessage(), e);
-            }
+            return converterParaDTO(salvar(processo));
+        } catch (RuntimeException e) {
+            anexos.descartar();
+            throw e;
         }
-
-        return converterParaDTO(processoDigitalRepository.save(processo));
     }
 
     @Transactional
     public ProcessoDigitalResponseDTO finalizarProcesso(Long id, FinalizarProcessoDTO dto) {
+        return converterParaDTO(finalizarProcesso(id, dto, null));
+    }
+
+    @Transactional
+    public ProcessoAssincronoResponseDTO finalizarProcessoAssincrono(Long id, FinalizarProcessoDTO dto) {
+        List<AssinaturaPendente> pendentes = new ArrayList<>();
+        finalizarProcesso(id, dto, pendentes);
+        return agendarAssinaturas(id, pendentes);
+    }
+
+    private ProcessoDigital finalizarProcesso(Long id, FinalizarProcessoDTO dto, List<AssinaturaPendente> pendentes) {
         ProcessoDigital processo = processoDigitalRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Processo não encontrado: " + id));
 
@@ -275,84 +320,280 @@ public class ProcessoDigitalService {
             processo.setDocsAnexados(docs);
         }
 
-        if (dto.getDecisaoPrefeito() != null && !dto.getDecisaoPrefeito().isEmpty()) {
-            try {
+        PipelineAnexos.Execucao anexos = pipelineAnexos.iniciar();
+        try {
+            if (dto.getDecisaoPrefeito() != null && !dto.getDecisaoPrefeito().isEmpty()) {
                 String processoPrefix = "processo-id-" + id + "/finalizacao/";
                 String safeName = sanitizeFilename(dto.getDecisaoPrefeito().getOriginalFilename());
 
-                byte[] bytesAssinados = assinaturaService.assinarDocumento(dto.getDecisaoPrefeito().getBytes());
-
-                MultipartFile arquivoAssinado = new BytesMultipartFile(
-                        bytesAssinados,
-                        safeName,
-                        dto.getDecisaoPrefeito().getContentType()
-                );
-
                 String objectName = processoPrefix + "decisaoPrefeito-ASSINADO-" + safeName;
-                minioService.uploadFile(arquivoAssinado, objectName);
-                docs.setDecisaoPref(objectName);
-
-            } catch (Exception e) {
-                throw new RuntimeException("Erro ao assinar Decisão do Prefeito: " + e.getMessage());
+                anexarAssinado(anexos, TipoDocumento.DECISAO_PREF, dto.getDecisaoPrefeito(), objectName,
+                        "Erro ao assinar Decisão do Prefeito", pendentes);
             }
-        }
+            anexos.concluir(docs);
 
-        processo.setStatus(Status.Finalizado);
-        processo.setDataFechamento(LocalDate.now());
+            processo.setStatus(Status.Finalizado);
+            processo.setDataFechamento(LocalDate.now());
 
-        return converterParaDTO(processoDigitalRepository.save(processo));
+            return salvar(processo);
+        } catch (RuntimeException e) {
+            anexos.descartar();
+            throw e;
+        }
     }
 
     // --- Métodos Auxiliares ---
 
+    // Toda gravação de processo passa por aqui para o cache de visões sair junto com o commit
+    private ProcessoDigital salvar(ProcessoDigital processo) {
+        ProcessoDigital salvo = temporizador.medir("db-save", () -> processoDigitalRepository.save(processo));
+        cacheVisoes.invalidarAposCommit(salvo.getId_processo());
+        return salvo;
+    }
+
+    /**
+     * Todos os processos com links: uma consulta só (projeção), sem carregar servidor e anexos um a um,
+     * e nenhuma enquanto nenhum processo mudar.
+     */
     public List<ProcessoDigitalResponseDTO> listarTodos() {
-        return processoDigitalRepository.findAll().stream().map(this::converterParaDTO).collect(Collectors.toList());
+        return cacheVisoes.listar(processoDigitalRepository::listarProjecao)
+                .stream().map(this::converterParaDTO).collect(Collectors.toList());
     }
 
     public ProcessoDigitalResponseDTO buscarPorId(Long id) {
-        return converterParaDTO(processoDigitalRepository.findById(id).orElseThrow());
+        return converterParaDTO(cacheVisoes.obter(id,
+                () -> processoDigitalRepository.buscarCompleto(id).map(ProcessoListagem::de)).orElseThrow());
     }
 
     private ProcessoDigitalResponseDTO converterParaDTO(ProcessoDigital processo) {
+        return converterParaDTO(ProcessoListagem.de(processo));
+    }
+
+    private ProcessoDigitalResponseDTO converterParaDTO(ProcessoListagem processo) {
         ProcessoDigitalResponseDTO dto = new ProcessoDigitalResponseDTO();
-        dto.setId_processo(processo.getId_processo());
-        if (processo.getServidorPublico() != null) {
-            dto.setNomeBeneficiado(processo.getServidorPublico().getNomeCompleto());
-            // ADICIONE ESTA LINHA:
-            dto.setTelefone(processo.getServidorPublico().getTelefone());
+        dto.setId_processo(processo.idProcesso());
+        dto.setNomeBeneficiado(processo.nomeBeneficiado());
+        dto.setTelefone(processo.telefone());
+        dto.setDataAbertura(processo.dataAbertura());
+        dto.setEstimativa(processo.estimativa());
+        dto.setDataPrevisao(processo.dataPrevisao());
+        dto.setDataFechamento(processo.dataFechamento());
+        dto.setSetor(processo.setor());
+        dto.setStatus(processo.status());
+        dto.setAssunto(processo.assunto());
+
+        DocsAnexados docs = processo.anexos();
+        if (docs != null) {
+            dto.setDocsAnexados(montarLinks(docs));
+        }
+        return dto;
+    }
+
+    /**
+     * Lista enxuta: só indica quais anexos existem, sem gerar nenhuma URL pré-assinada.
+     */
+    public List<ProcessoResumoDTO> listarResumo() {
+        return cacheVisoes.listar(processoDigitalRepository::listarProjecao)
+                .stream().map(this::converterParaResumo).collect(Collectors.toList());
+    }
+
+    /**
+     * Listagem paginada e filtrada (keyset): o cursor devolvido aponta para o último item da
+     * página, e a próxima começa logo depois dele, sem OFFSET.
+     */
+    @Transactional(readOnly = true)
+    public PaginaProcessosDTO listarPagina(FiltroProcessoDTO filtro, OrdemProcesso ordem, String cursor, int tamanho) {
+        if (tamanho < 1 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("O tamanho da página deve estar entre 1 e " + TAMANHO_MAXIMO_PAGINA + ".");
+        }
+        OrdemProcesso ordenacao = ordem != null ? ordem : OrdemProcesso.RECENTES;
+
+        // Um item a mais só para saber se existe próxima página
+        List<ProcessoDigital> processos = processoDigitalRepository.buscarPagina(
+                filtro, ordenacao, decodificarCursor(cursor, ordenacao), tamanho + 1);
+        boolean temMais = processos.size() > tamanho;
+        if (temMais) {
+            processos = processos.subList(0, tamanho);
+        }
+
+        List<ProcessoResumoDTO> itens = processos.stream()
+                .map(processo -> converterParaResumo(ProcessoListagem.de(processo)))
+                .collect(Collectors.toList());
+        String proximoCursor = temMais ? codificarCursor(processos.get(processos.size() - 1), ordenacao) : null;
+        return new PaginaProcessosDTO(itens, proximoCursor, temMais);
+    }
+
+    /**
+     * Busca textual no assunto e no nome do beneficiado (sem acentos, com radicais do português),
+     * em ordem de relevância: uma consulta no índice GIN em vez de baixar a lista inteira.
+     */
+    @Transactional(readOnly = true)
+    public PaginaBuscaDTO buscarTexto(String consulta, FiltroProcessoDTO filtro, int pagina, int tamanho) {
+        if (consulta == null || consulta.isBlank()) {
+            throw new IllegalArgumentException("Informe o texto da busca.");
+        }
+        if (consulta.length() > TAMANHO_MAXIMO_CONSULTA) {
+            throw new IllegalArgumentException("O texto da busca deve ter no máximo " + TAMANHO_MAXIMO_CONSULTA + " caracteres.");
+        }
+        if (tamanho < 1 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("O tamanho da página deve estar entre 1 e " + TAMANHO_MAXIMO_PAGINA + ".");
+        }
+        if (pagina < 0 || (long) pagina * tamanho >= MAXIMO_RESULTADOS_BUSCA) {
+            throw new IllegalArgumentException("Página fora do limite de " + MAXIMO_RESULTADOS_BUSCA + " resultados; refine a busca.");
         }
 
-        dto.setDataAbertura(processo.getDataAbertura());
-        dto.setEstimativa(processo.getEstimativa());
-        dto.setDataPrevisao(processo.getDataPrevisao());
-        dto.setDataFechamento(processo.getDataFechamento());
-        dto.setSetor(processo.getSetor());
-        dto.setStatus(processo.getStatus());
-        dto.setAssunto(processo.getAssunto());
-
-        if (processo.getDocsAnexados() != null) {
-            DocsAnexados docs = processo.getDocsAnexados();
-            DocsAnexadosResponseDTO docsDto = new DocsAnexadosResponseDTO();
-            docsDto.setId_docs(docs.getId_docs());
-
-            // URLs assinadas do MinIO
-            docsDto.setReqPessoaUrl(minioService.getPresignedUrl(docs.getReqPessoa()));
-            docsDto.setMemSolicitacaoJurUrl(minioService.getPresignedUrl(docs.getMemSolicitacaoJur()));
-            docsDto.setParecerJuridicoUrl(minioService.getPresignedUrl(docs.getParecerJuridico()));
-            docsDto.setDecisaoPrefUrl(minioService.getPresignedUrl(docs.getDecisaoPref()));
-            docsDto.setMemorandoPrefUrl(minioService.getPresignedUrl(docs.getMemorandoPref()));
-
-            dto.setDocsAnexados(docsDto);
+        // Um item a mais só para saber se existe próxima página
+        List<ProcessoListagem> encontrados = processoDigitalRepository.buscarTexto(
+                consulta.trim(), filtro, pagina * tamanho, tamanho + 1);
+        boolean temMais = encontrados.size() > tamanho;
+        if (temMais) {
+            encontrados = encontrados.subList(0, tamanho);
+        }
+        return new PaginaBuscaDTO(encontrados.stream().map(this::converterParaResumo).collect(Collectors.toList()),
+                pagina, temMais);
+    }
+
+    // Cursor opaco para o cliente: "ordem|data|id" em Base64 URL-safe
+    private static String codificarCursor(ProcessoDigital ultimo, OrdemProcesso ordem) {
+        String valor = ordem + "|" + ultimo.getDataAbertura() + "|" + ultimo.getId_processo();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodificarCursor(String cursor, OrdemProcesso ordem) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (partes.length != 3 || !partes[0].equals(ordem.name())) {
+                throw new IllegalArgumentException();
+            }
+            return new Cursor(LocalDate.parse(partes[1]), Long.parseLong(partes[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido para a ordenação " + ordem + ".");
+        }
+    }
+
+    /**
+     * Links dos anexos de um processo, pedidos quando o usuário abre o detalhe.
+     */
+    public DocsAnexadosResponseDTO buscarLinks(Long id) {
+        ProcessoDigital processo = processoDigitalRepository.buscarComAnexos(List.of(id)).stream().findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("Processo não encontrado com ID: " + id));
+        return processo.getDocsAnexados() != null ? montarLinks(processo.getDocsAnexados()) : new DocsAnexadosResponseDTO();
+    }
+
+    /**
+     * Links de vários processos em uma só consulta, indexados pelo id do processo (ids inexistentes são ignorados).
+     */
+    public Map<Long, DocsAnexadosResponseDTO> buscarLinks(List<Long> ids) {
+        if (ids.size() > MAXIMO_LINKS_POR_CONSULTA) {
+            throw new IllegalArgumentException("Máximo de " + MAXIMO_LINKS_POR_CONSULTA + " processos por consulta de links.");
+        }
+        Map<Long, DocsAnexadosResponseDTO> links = new LinkedHashMap<>();
+        if (ids.isEmpty()) {
+            return links;
+        }
+        for (ProcessoDigital processo : processoDigitalRepository.buscarComAnexos(ids)) {
+            links.put(processo.getId_processo(), processo.getDocsAnexados() != null
+                    ? montarLinks(processo.getDocsAnexados()) : new DocsAnexadosResponseDTO());
+        }
+        return links;
+    }
+
+    /**
+     * Nome do objeto do anexo de um processo (usado pelo download via API).
+     */
+    public String buscarObjetoDocumento(Long id, TipoDocumento tipo) {
+        ProcessoDigital processo = processoDigitalRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Processo não encontrado com ID: " + id));
+        String objeto = tipo.obter(processo.getDocsAnexados());
+        if (objeto == null || objeto.isBlank()) {
+            throw new EntityNotFoundException("O processo " + id + " não possui o documento " + tipo);
+        }
+        return objeto;
+    }
+
+    private DocsAnexadosResponseDTO montarLinks(DocsAnexados docs) {
+        DocsAnexadosResponseDTO docsDto = new DocsAnexadosResponseDTO();
+        docsDto.setId_docs(docs.getId_docs());
+
+        // URLs assinadas do MinIO
+        docsDto.setReqPessoaUrl(minioService.getPresignedUrl(docs.getReqPessoa()));
+        docsDto.setMemSolicitacaoJurUrl(minioService.getPresignedUrl(docs.getMemSolicitacaoJur()));
+        docsDto.setParecerJuridicoUrl(minioService.getPresignedUrl(docs.getParecerJuridico()));
+        docsDto.setReqDecPrefeitoUrl(minioService.getPresignedUrl(docs.getReqDecPrefeito()));
+        docsDto.setDecisaoPrefUrl(minioService.getPresignedUrl(docs.getDecisaoPref()));
+        docsDto.setOutrosUrl(minioService.getPresignedUrl(docs.getOutros()));
+        docsDto.setMemorandoPrefUrl(minioService.getPresignedUrl(docs.getMemorandoPref()));
+        return docsDto;
+    }
+
+    private ProcessoResumoDTO converterParaResumo(ProcessoListagem processo) {
+        ProcessoResumoDTO dto = new ProcessoResumoDTO();
+        dto.setId_processo(processo.idProcesso());
+        dto.setNomeBeneficiado(processo.nomeBeneficiado());
+        dto.setTelefone(processo.telefone());
+        dto.setDataAbertura(processo.dataAbertura());
+        dto.setEstimativa(processo.estimativa());
+        dto.setDataPrevisao(processo.dataPrevisao());
+        dto.setDataFechamento(processo.dataFechamento());
+        dto.setSetor(processo.setor());
+        dto.setStatus(processo.status());
+        dto.setAssunto(processo.assunto());
+
+        DocsAnexados docs = processo.anexos();
+        if (docs != null) {
+            DocsPresentesDTO presentes = new DocsPresentesDTO();
+            presentes.setId_docs(docs.getId_docs());
+            presentes.setReqPessoa(existe(docs.getReqPessoa()));
+            presentes.setMemSolicitacaoJur(existe(docs.getMemSolicitacaoJur()));
+            presentes.setParecerJuridico(existe(docs.getParecerJuridico()));
+            presentes.setReqDecPrefeito(existe(docs.getReqDecPrefeito()));
+            presentes.setDecisaoPref(existe(docs.getDecisaoPref()));
+            presentes.setOutros(existe(docs.getOutros()));
+            presentes.setMemorandoPref(existe(docs.getMemorandoPref()));
+            dto.setDocumentos(presentes);
         }
         return dto;
     }
 
-    public String sanitizeFilename(String filename) {
+    private static boolean existe(String objectName) {
+        return objectName != null && !objectName.isBlank();
+    }
+
+    public static String sanitizeFilename(String filename) {
         if (filename == null) return "arquivo_sem_nome";
         // Remove caracteres especiais, mantendo apenas letras, números, ponto, traço e underscore
         return filename.replaceAll("[^a-zA-Z0-9\\.\\-_]", "_").replaceAll("_{2,}", "_");
     }
 
+    /**
+     * Sem lista de pendentes a assinatura entra no pipeline de anexos (vinculada em concluir);
+     * com lista, só registra para virar job após o save.
+     */
+    private void anexarAssinado(PipelineAnexos.Execucao anexos, TipoDocumento tipo, MultipartFile arquivo,
+                                String objectName, String descricaoErro, List<AssinaturaPendente> pendentes) {
+        if (pendentes != null) {
+            pendentes.add(new AssinaturaPendente(tipo, arquivo, objectName));
+            return;
+        }
+        anexos.assinarEEnviar(tipo, arquivo, objectName, descricaoErro);
+    }
+
+    private ProcessoAssincronoResponseDTO agendarAssinaturas(Long idProcesso, List<AssinaturaPendente> pendentes) {
+        List<JobAssinaturaDTO> jobs = new ArrayList<>();
+        for (AssinaturaPendente pendente : pendentes) {
+            try {
+                jobs.add(new JobAssinaturaDTO(jobAssinaturaService.agendar(
+                        idProcesso, pendente.tipo(), pendente.arquivo(), pendente.objectName())));
+            } catch (IOException e) {
+                throw new RuntimeException("Erro ao agendar assinatura: " + e.getMessage(), e);
+            }
+        }
+        return new ProcessoAssincronoResponseDTO(idProcesso, jobs);
+    }
+
     private LocalDate calcularDiasUteis(LocalDate dataInicial, long estimativa) {
         LocalDate dataFinal = dataInicial;
         long dias = 0;
@@ -363,28 +604,4 @@ public class ProcessoDigitalService {
         }
         return dataFinal;
     }
-
-    // Classe interna para converter byte[] de volta para MultipartFile
-    private static class BytesMultipartFile implements MultipartFile {
-        private final byte[] content;
-        private final String name;
-        private final String contentType;
-
-        public BytesMultipartFile(byte[] content, String name, String contentType) {
-            this.content = content;
-            this.name = name;
-            this.contentType = contentType;
-        }
-
-        @Override public String getName() { return name; }
-        @Override public String getOriginalFilename() { return name; }
-        @Override public String getContentType() { return contentType; }
-        @Override public boolean isEmpty() { return content == null || content.length == 0; }
-        @Override public long getSize() { return content.length; }
-        @Override public byte[] getBytes() throws IOException { return content; }
-        @Override public InputStream getInputStream() throws IOException { return new ByteArrayInputStream(content); }
-        @Override public void transferTo(File dest) throws IOException, IllegalStateException {
-            try(FileOutputStream fos = new FileOutputStream(dest)) { fos.write(content); }
-        }
-    }
 }
\ No newline at end of file
@@ -18,12 +18,48 @@ public class ServidorPublicoService {
     @Autowired
     private ServidorPublicoRepository servidorPublicoRepository;
 
-    // Métodos de Busca existentes...
-    public List<ServidorPublicoDTO> buscarLikeNome(String nomeCompleto) {
-        List<ServidorPublico> servidores = servidorPublicoRepository.buscarLikeNome(nomeCompleto);
+    @Autowired
+    private CacheVisaoProcessos cacheVisoes;
+
+    @Autowired
+    private IndiceNomesServidores indiceNomes;
+
+    private static final int LIMITE_MAXIMO_BUSCA = 50;
+    // Abaixo disso trigramas não ajudam: só o começo do nome
+    private static final int TAMANHO_MINIMO_SEMELHANCA = 3;
+
+    /**
+     * Autocomplete por nome, sem diferenciar acentos e maiúsculas, limitado a {@code limite} resultados.
+     * Usa o índice em memória; o banco (índices de trigramas) só entra se o índice não estiver
+     * carregado ou não achar nada (termo no meio de uma palavra ou com erro de digitação).
+     */
+    public List<ServidorPublicoDTO> buscarPorNome(String nome, int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO_BUSCA) {
+            throw new IllegalArgumentException("O limite deve estar entre 1 e " + LIMITE_MAXIMO_BUSCA + ".");
+        }
+        if (nome == null || nome.isBlank()) {
+            return List.of();
+        }
+        String termo = nome.trim();
+        if (indiceNomes.isPronto()) {
+            List<ServidorPublicoDTO> encontrados = indiceNomes.buscar(termo, limite);
+            if (!encontrados.isEmpty() || termo.length() < TAMANHO_MINIMO_SEMELHANCA) {
+                return encontrados;
+            }
+        }
+
+        String escapado = escaparLike(termo);
+        List<ServidorPublico> servidores = termo.length() < TAMANHO_MINIMO_SEMELHANCA
+                ? servidorPublicoRepository.buscarPorPrefixo(escapado + "%", limite)
+                : servidorPublicoRepository.buscarPorSemelhanca(termo, "%" + escapado + "%", escapado + "%", limite);
         return servidores.stream().map(ServidorPublicoDTO::new).collect(Collectors.toList());
     }
 
+    // % e _ digitados pelo usuário são literais no LIKE
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     public List<ServidorPublicoResponseDTO> listarTodos() {
         return servidorPublicoRepository.findAll()
                 .stream()
@@ -42,6 +78,7 @@ public class ServidorPublicoService {
 
         // 2. Salva
         ServidorPublico salvo = servidorPublicoRepository.save(entidade);
+        indiceNomes.atualizarAposCommit(salvo);
 
         // 3. Retorna DTO de resposta
         return new ServidorPublicoResponseDTO(salvo);
@@ -59,6 +96,9 @@ public class ServidorPublicoService {
 
         // 3. O save aqui fará um UPDATE porque a entidade já tem ID
         ServidorPublico atualizado = servidorPublicoRepository.save(entidade);
+        indiceNomes.atualizarAposCommit(atualizado);
+        // Nome e telefone aparecem nas visões de todos os processos do servidor
+        cacheVisoes.invalidarTudoAposCommit();
 
         return new ServidorPublicoResponseDTO(atualizado);
     }
@@ -0,0 +1,72 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.config.RegistroEtapas;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede as etapas de assinatura/upload. Cada medição vai para o histograma "siae.etapa"
+ * (tag etapa) e, quando há uma requisição HTTP na thread, para o cabeçalho Server-Timing.
+ */
+@Component
+public class TemporizadorEtapas {
+
+    @FunctionalInterface
+    public interface Etapa<T, E extends Exception> {
+        T executar() throws E;
+    }
+
+    @FunctionalInterface
+    public interface Acao<E extends Exception> {
+        void executar() throws E;
+    }
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public TemporizadorEtapas(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T, E extends Exception> T medir(String nome, Etapa<T, E> etapa) throws E {
+        long inicio = System.nanoTime();
+        try {
+            return etapa.executar();
+        } finally {
+            registrar(nome, System.nanoTime() - inicio);
+        }
+    }
+
+    public <E extends Exception> void cronometrar(String nome, Acao<E> acao) throws E {
+        long inicio = System.nanoTime();
+        try {
+            acao.executar();
+        } finally {
+            registrar(nome, System.nanoTime() - inicio);
+        }
+    }
+
+    public void registrar(String nome, long nanos) {
+        timers.computeIfAbsent(nome, n -> Timer.builder("siae.etapa")
+                        .description("Duração das etapas de assinatura, parsing e armazenamento")
+                        .tag("etapa", n)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos != null) {
+            Object registro = atributos.getAttribute(RegistroEtapas.ATRIBUTO, RequestAttributes.SCOPE_REQUEST);
+            if (registro instanceof RegistroEtapas etapas) {
+                etapas.adicionar(nome, nanos);
+            }
+        }
+    }
+}
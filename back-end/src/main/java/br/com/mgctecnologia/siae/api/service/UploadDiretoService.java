@@ -0,0 +1,119 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.DTO.DocsAnexadosResponseDTO;
+import br.com.mgctecnologia.siae.api.DTO.UploadDiretoDTO;
+import br.com.mgctecnologia.siae.api.model.DocsAnexados;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.ProcessoDigital;
+import br.com.mgctecnologia.siae.api.model.TipoDocumento;
+import br.com.mgctecnologia.siae.api.repository.ProcessoDigitalRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.Map;
+
+/**
+ * Upload direto do navegador para o MinIO, para anexos que não passam por assinatura no servidor.
+ * A API só emite a política (presa ao nome do objeto e ao tamanho máximo) e depois confirma
+ * o objeto enviado, gravando-o em DocsAnexados; os bytes não passam pelo Tomcat.
+ */
+@Service
+public class UploadDiretoService {
+
+    private final ProcessoDigitalRepository processoDigitalRepository;
+    private final MinioStorageService minioService;
+    private final ProcessoDigitalService processoDigitalService;
+    private final CacheVisaoProcessos cacheVisoes;
+    private final ArmazenamentoDeduplicadoService deduplicado;
+
+    @Value("${siae.upload.direto.tamanho-maximo-mb:50}")
+    private long tamanhoMaximoMb;
+
+    @Value("${siae.upload.direto.validade-minutos:15}")
+    private long validadeMinutos;
+
+    public UploadDiretoService(ProcessoDigitalRepository processoDigitalRepository,
+                               MinioStorageService minioService,
+                               ProcessoDigitalService processoDigitalService,
+                               CacheVisaoProcessos cacheVisoes,
+                               ArmazenamentoDeduplicadoService deduplicado) {
+        this.processoDigitalRepository = processoDigitalRepository;
+        this.minioService = minioService;
+        this.processoDigitalService = processoDigitalService;
+        this.cacheVisoes = cacheVisoes;
+        this.deduplicado = deduplicado;
+    }
+
+    @Transactional(readOnly = true)
+    public UploadDiretoDTO autorizar(Long idProcesso, TipoDocumento tipo, String nomeArquivo, String contentType) {
+        validarTipo(tipo);
+        ProcessoDigital processo = buscarProcesso(idProcesso);
+
+        String objeto = prefixoDoProcesso(processo) + tipo.getCampo() + "-"
+                + ProcessoDigitalService.sanitizeFilename(nomeArquivo);
+        ZonedDateTime expiraEm = ZonedDateTime.now().plusMinutes(validadeMinutos);
+        long tamanhoMaximo = tamanhoMaximoMb * 1024 * 1024;
+
+        Map<String, String> campos = minioService.gerarPoliticaUpload(objeto, contentType, tamanhoMaximo, expiraEm);
+        return new UploadDiretoDTO(objeto, minioService.getUrlUpload(), campos, tamanhoMaximo, expiraEm.toInstant());
+    }
+
+    /**
+     * Confere se o objeto é do processo e do tipo informados e se realmente chegou ao MinIO,
+     * e só então o vincula ao processo.
+     */
+    @Transactional
+    public DocsAnexadosResponseDTO confirmar(Long idProcesso, TipoDocumento tipo, String objeto) {
+        validarTipo(tipo);
+        ProcessoDigital processo = buscarProcesso(idProcesso);
+
+        if (objeto == null || !objeto.startsWith(prefixoDoProcesso(processo) + tipo.getCampo() + "-") || objeto.contains("..")) {
+            throw new IllegalArgumentException("O objeto informado não pertence a este processo/documento.");
+        }
+        long tamanho = minioService.tamanhoObjeto(objeto)
+                .orElseThrow(() -> new IllegalStateException("O arquivo ainda não foi recebido pelo armazenamento."));
+        if (tamanho > tamanhoMaximoMb * 1024 * 1024) {
+            throw new IllegalArgumentException("O arquivo excede o tamanho máximo permitido.");
+        }
+
+        DocsAnexados docs = processo.getDocsAnexados();
+        if (docs == null) {
+            docs = new DocsAnexados();
+            processo.setDocsAnexados(docs);
+        }
+        deduplicado.liberarAposCommit(tipo.obter(docs), objeto);
+        tipo.definir(docs, objeto);
+        processoDigitalRepository.save(processo);
+        cacheVisoes.invalidarAposCommit(idProcesso);
+
+        return processoDigitalService.buscarLinks(idProcesso);
+    }
+
+    private void validarTipo(TipoDocumento tipo) {
+        if (tipo.isExigeAssinatura()) {
+            throw new IllegalArgumentException("O documento " + tipo + " exige assinatura e deve ser enviado pela API.");
+        }
+    }
+
+    private ProcessoDigital buscarProcesso(Long idProcesso) {
+        return processoDigitalRepository.findById(idProcesso)
+                .orElseThrow(() -> new EntityNotFoundException("Processo não encontrado com ID: " + idProcesso));
+    }
+
+    /**
+     * Pasta do processo no bucket ("processo-<uuid>/"), tirada dos anexos já gravados.
+     * Processos ainda sem anexos usam uma pasta fixa pelo id, para a confirmação chegar ao mesmo prefixo.
+     * Blobs deduplicados (blobs/...) são compartilhados entre processos e não indicam pasta.
+     */
+    static String prefixoDoProcesso(ProcessoDigital processo) {
+        for (TipoDocumento tipo : TipoDocumento.values()) {
+            String objeto = tipo.obter(processo.getDocsAnexados());
+            if (objeto != null && objeto.indexOf('/') > 0 && !ArmazenamentoDeduplicadoService.ehBlob(objeto)) {
+                return objeto.substring(0, objeto.indexOf('/') + 1);
+            }
+        }
+        return "processo-" + processo.getId_processo() + "/";
+    }
+}
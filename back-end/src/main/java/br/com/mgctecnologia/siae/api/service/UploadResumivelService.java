@@ -0,0 +1,337 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.DTO.CriarSessaoUploadRequest;
+import br.com.mgctecnologia.siae.api.DTO.SessaoUploadDTO;
+import br.com.mgctecnologia.siae.api.model.DocsAnexados;
+import br.com.mgctecnologia.siae.api.model.JobAssinatura;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.ProcessoDigital;
+import br.com.mgctecnologia.siae.api.model.SessaoUpload;
+import br.com.mgctecnologia.siae.api.model.TipoDocumento;
+import br.com.mgctecnologia.siae.api.repository.ProcessoDigitalRepository;
+import br.com.mgctecnologia.siae.api.repository.SessaoUploadRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Upload retomável em partes numeradas. Cada parte vira um objeto temporário no MinIO;
+ * o cliente consulta o que já chegou e reenvia só o que falta. Na conclusão as partes são
+ * juntadas no próprio MinIO (compose) ou, se o documento exige assinatura, viram um job de assinatura.
+ */
+@Service
+public class UploadResumivelService {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadResumivelService.class);
+
+    // O compose do MinIO (multipart copy) exige partes de pelo menos 5 MB, exceto a última, e no máximo 10000
+    private static final long TAMANHO_MINIMO_PARTE = 5L * 1024 * 1024;
+    private static final int MAXIMO_PARTES = 10000;
+    private static final String PASTA_UPLOADS = "uploads/";
+
+    private final SessaoUploadRepository sessaoRepository;
+    private final ProcessoDigitalRepository processoDigitalRepository;
+    private final MinioStorageService minioService;
+    private final JobAssinaturaService jobAssinaturaService;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheVisaoProcessos cacheVisoes;
+    private final ArmazenamentoDeduplicadoService deduplicado;
+
+    @Value("${siae.upload.resumivel.tamanho-maximo-mb:200}")
+    private long tamanhoMaximoMb;
+
+    @Value("${siae.upload.resumivel.tamanho-parte-mb:8}")
+    private long tamanhoParteMb;
+
+    @Value("${siae.upload.resumivel.tamanho-parte-maximo-mb:64}")
+    private long tamanhoParteMaximoMb;
+
+    @Value("${siae.upload.resumivel.validade-horas:24}")
+    private long validadeHoras;
+
+    public UploadResumivelService(SessaoUploadRepository sessaoRepository,
+                                  ProcessoDigitalRepository processoDigitalRepository,
+                                  MinioStorageService minioService,
+                                  JobAssinaturaService jobAssinaturaService,
+                                  PlatformTransactionManager transactionManager,
+                                  CacheVisaoProcessos cacheVisoes,
+                                  ArmazenamentoDeduplicadoService deduplicado) {
+        this.sessaoRepository = sessaoRepository;
+        this.processoDigitalRepository = processoDigitalRepository;
+        this.minioService = minioService;
+        this.jobAssinaturaService = jobAssinaturaService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheVisoes = cacheVisoes;
+        this.deduplicado = deduplicado;
+    }
+
+    public SessaoUploadDTO criar(CriarSessaoUploadRequest request) {
+        if (request.getIdProcesso() == null || request.getTipo() == null || request.getNomeArquivo() == null) {
+            throw new IllegalArgumentException("idProcesso, tipo e nomeArquivo são obrigatórios.");
+        }
+        if (!processoDigitalRepository.existsById(request.getIdProcesso())) {
+            throw new EntityNotFoundException("Processo não encontrado com ID: " + request.getIdProcesso());
+        }
+        long tamanhoTotal = request.getTamanhoTotal() == null ? 0 : request.getTamanhoTotal();
+        if (tamanhoTotal <= 0 || tamanhoTotal > tamanhoMaximoMb * 1024 * 1024) {
+            throw new IllegalArgumentException("Tamanho do arquivo inválido (máximo de " + tamanhoMaximoMb + " MB).");
+        }
+        long tamanhoParte = request.getTamanhoParte() != null ? request.getTamanhoParte() : tamanhoParteMb * 1024 * 1024;
+        if (tamanhoParte < TAMANHO_MINIMO_PARTE) {
+            throw new IllegalArgumentException("O tamanho mínimo de cada parte é 5 MB.");
+        }
+        if (tamanhoParte > tamanhoParteMaximoMb * 1024 * 1024) {
+            throw new IllegalArgumentException("O tamanho máximo de cada parte é " + tamanhoParteMaximoMb + " MB.");
+        }
+
+        SessaoUpload sessao = new SessaoUpload();
+        sessao.setId(UUID.randomUUID().toString());
+        sessao.setIdProcesso(request.getIdProcesso());
+        sessao.setTipoDocumento(request.getTipo());
+        sessao.setNomeArquivo(ProcessoDigitalService.sanitizeFilename(request.getNomeArquivo()));
+        sessao.setContentType(request.getContentType());
+        sessao.setTamanhoTotal(tamanhoTotal);
+        sessao.setTamanhoParte(tamanhoParte);
+        if (sessao.getTotalPartes() > MAXIMO_PARTES) {
+            throw new IllegalArgumentException("Arquivo dividido em partes demais; aumente o tamanho da parte.");
+        }
+        return montarStatus(sessaoRepository.save(sessao));
+    }
+
+    /**
+     * Recebe uma parte. Reenviar uma parte já recebida apenas a sobrescreve, então o cliente
+     * pode repetir com segurança qualquer envio que não teve resposta.
+     */
+    public SessaoUploadDTO receberParte(String id, int numero, InputStream corpo, long tamanhoInformado) throws Exception {
+        SessaoUpload sessao = buscarAberta(id);
+        if (numero < 1 || numero > sessao.getTotalPartes()) {
+            throw new IllegalArgumentException("Parte " + numero + " fora do intervalo 1.." + sessao.getTotalPartes());
+        }
+        long esperado = sessao.tamanhoDaParte(numero);
+        if (tamanhoInformado >= 0 && tamanhoInformado != esperado) {
+            throw new IllegalArgumentException("A parte " + numero + " deve ter " + esperado + " bytes.");
+        }
+
+        // A parte é gravada em disco antes do envio: tamanho conferido e reenvio possível em caso de falha
+        Path temporario = Files.createTempFile("siae-parte-", ".bin");
+        try {
+            long recebido = copiarLimitado(corpo, temporario, esperado + 1);
+            if (recebido > esperado) {
+                throw new IllegalArgumentException("A parte " + numero + " excede " + esperado + " bytes.");
+            }
+            if (recebido != esperado) {
+                throw new IllegalArgumentException("A parte " + numero + " chegou incompleta ("
+                        + recebido + " de " + esperado + " bytes).");
+            }
+            minioService.uploadFile(temporario, "application/octet-stream", nomeParte(id, numero));
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+
+        sessao.setDataAtualizacao(LocalDateTime.now());
+        return montarStatus(sessaoRepository.save(sessao));
+    }
+
+    /**
+     * Copia no máximo {@code limite} bytes do corpo para o arquivo; um corpo maior que a parte
+     * é cortado ali mesmo, sem ocupar o disco com o excesso.
+     */
+    private static long copiarLimitado(InputStream corpo, Path destino, long limite) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(destino)) {
+            while (total < limite) {
+                int lidos = corpo.read(buffer, 0, (int) Math.min(buffer.length, limite - total));
+                if (lidos < 0) {
+                    break;
+                }
+                out.write(buffer, 0, lidos);
+                total += lidos;
+            }
+        }
+        return total;
+    }
+
+    public SessaoUploadDTO status(String id) {
+        return montarStatus(buscar(id));
+    }
+
+    /**
+     * Conclui o upload quando todas as partes chegaram. O trabalho no MinIO acontece fora da
+     * transação; ela só grava o vínculo (ou o job) e marca a sessão como concluída.
+     */
+    public SessaoUploadDTO concluir(String id) throws Exception {
+        SessaoUpload sessao = buscarAberta(id);
+        List<Integer> faltando = new ArrayList<>();
+        List<Integer> recebidas = partesRecebidas(sessao);
+        for (int n = 1; n <= sessao.getTotalPartes(); n++) {
+            if (!recebidas.contains(n)) faltando.add(n);
+        }
+        if (!faltando.isEmpty()) {
+            throw new IllegalStateException("Ainda faltam as partes " + faltando);
+        }
+
+        ProcessoDigital processo = processoDigitalRepository.findById(sessao.getIdProcesso())
+                .orElseThrow(() -> new EntityNotFoundException("Processo não encontrado com ID: " + sessao.getIdProcesso()));
+        TipoDocumento tipo = sessao.getTipoDocumento();
+        String prefixo = UploadDiretoService.prefixoDoProcesso(processo);
+        List<String> partes = new ArrayList<>();
+        for (int n = 1; n <= sessao.getTotalPartes(); n++) {
+            partes.add(nomeParte(id, n));
+        }
+
+        SessaoUpload concluida;
+        if (tipo.isExigeAssinatura()) {
+            // Junta as partes na cópia local do job; a assinatura segue o fluxo assíncrono normal
+            String destino = prefixo + tipo.getCampo() + "-ASSINADO-" + sessao.getNomeArquivo();
+            Path local = jobAssinaturaService.novoArquivoLocal();
+            try (OutputStream out = Files.newOutputStream(local)) {
+                for (String parte : partes) {
+                    minioService.copiarPara(parte, out);
+                }
+            } catch (Exception e) {
+                Files.deleteIfExists(local);
+                throw e;
+            }
+            try {
+                concluida = transactionTemplate.execute(s -> {
+                    SessaoUpload atual = buscarAberta(id);
+                    JobAssinatura job = jobAssinaturaService.agendar(
+                            atual.getIdProcesso(), tipo, local, atual.getContentType(), destino);
+                    atual.setIdJob(job.getId());
+                    return marcarConcluida(atual, destino);
+                });
+            } catch (RuntimeException e) {
+                Files.deleteIfExists(local);
+                throw e;
+            }
+        } else {
+            String destino = prefixo + tipo.getCampo() + "-" + sessao.getNomeArquivo();
+            minioService.comporObjeto(partes, destino, sessao.getContentType());
+            concluida = transactionTemplate.execute(s -> {
+                SessaoUpload atual = buscarAberta(id);
+                ProcessoDigital p = processoDigitalRepository.findById(atual.getIdProcesso()).orElseThrow();
+                DocsAnexados docs = p.getDocsAnexados();
+                if (docs == null) {
+                    docs = new DocsAnexados();
+                    p.setDocsAnexados(docs);
+                }
+                deduplicado.liberarAposCommit(tipo.obter(docs), destino);
+                tipo.definir(docs, destino);
+                processoDigitalRepository.save(p);
+                cacheVisoes.invalidarAposCommit(p.getId_processo());
+                return marcarConcluida(atual, destino);
+            });
+        }
+
+        minioService.removerObjetos(partes);
+        return montarStatus(concluida);
+    }
+
+    public void cancelar(String id) {
+        SessaoUpload sessao = buscar(id);
+        minioService.removerObjetos(minioService.listarObjetos(pastaSessao(id)).keySet());
+        sessaoRepository.delete(sessao);
+    }
+
+    /**
+     * Remove sessões abandonadas (e suas partes) depois do prazo de validade.
+     */
+    @Scheduled(fixedDelay = 60 * 60 * 1000)
+    public void limparAbandonadas() {
+        LocalDateTime limite = LocalDateTime.now().minusHours(validadeHoras);
+        for (SessaoUpload sessao : sessaoRepository.findByDataConclusaoIsNullAndDataAtualizacaoBefore(limite)) {
+            try {
+                cancelar(sessao.getId());
+            } catch (Exception e) {
+                log.warn("Não foi possível remover a sessão de upload abandonada {}: {}", sessao.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private SessaoUpload marcarConcluida(SessaoUpload sessao, String destino) {
+        sessao.setObjetoFinal(destino);
+        sessao.setDataConclusao(LocalDateTime.now());
+        return sessaoRepository.save(sessao);
+    }
+
+    private SessaoUploadDTO montarStatus(SessaoUpload sessao) {
+        SessaoUploadDTO dto = new SessaoUploadDTO(sessao);
+        if (dto.isConcluida()) {
+            dto.setPartesRecebidas(List.of());
+            dto.setIntervalosRecebidos(List.of("0-" + (sessao.getTamanhoTotal() - 1)));
+            dto.setBytesRecebidos(sessao.getTamanhoTotal());
+            return dto;
+        }
+
+        List<Integer> partes = partesRecebidas(sessao);
+        List<String> intervalos = new ArrayList<>();
+        long bytes = 0;
+        int i = 0;
+        while (i < partes.size()) {
+            // Partes consecutivas viram uma única faixa de bytes
+            int j = i;
+            while (j + 1 < partes.size() && partes.get(j + 1) == partes.get(j) + 1) j++;
+            long inicio = (long) (partes.get(i) - 1) * sessao.getTamanhoParte();
+            long fim = (long) (partes.get(j) - 1) * sessao.getTamanhoParte() + sessao.tamanhoDaParte(partes.get(j)) - 1;
+            intervalos.add(inicio + "-" + fim);
+            bytes += fim - inicio + 1;
+            i = j + 1;
+        }
+        dto.setPartesRecebidas(partes);
+        dto.setIntervalosRecebidos(intervalos);
+        dto.setBytesRecebidos(bytes);
+        return dto;
+    }
+
+    /**
+     * Partes presentes no MinIO e com o tamanho esperado, em ordem crescente.
+     */
+    private List<Integer> partesRecebidas(SessaoUpload sessao) {
+        Map<String, Long> objetos = minioService.listarObjetos(pastaSessao(sessao.getId()));
+        List<Integer> partes = new ArrayList<>();
+        for (int n = 1; n <= sessao.getTotalPartes(); n++) {
+            Long tamanho = objetos.get(nomeParte(sessao.getId(), n));
+            if (tamanho != null && tamanho == sessao.tamanhoDaParte(n)) {
+                partes.add(n);
+            }
+        }
+        return partes;
+    }
+
+    private SessaoUpload buscar(String id) {
+        return sessaoRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Sessão de upload não encontrada: " + id));
+    }
+
+    private SessaoUpload buscarAberta(String id) {
+        SessaoUpload sessao = buscar(id);
+        if (sessao.getDataConclusao() != null) {
+            throw new IllegalStateException("A sessão de upload " + id + " já foi concluída.");
+        }
+        return sessao;
+    }
+
+    private static String pastaSessao(String id) {
+        return PASTA_UPLOADS + id + "/";
+    }
+
+    private static String nomeParte(String id, int numero) {
+        return pastaSessao(id) + String.format("parte-%05d", numero);
+    }
+}
@@ -0,0 +1,261 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.DTO.AssinaturaVerificadaDTO;
+import br.com.mgctecnologia.siae.api.DTO.VerificacaoAssinaturaDTO;
+import br.com.mgctecnologia.siae.api.cache.CacheLRU;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.bouncycastle.asn1.cms.Attribute;
+import org.bouncycastle.asn1.cms.CMSAttributes;
+import org.bouncycastle.asn1.cms.Time;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
+import org.bouncycastle.util.encoders.Hex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Verifica as assinaturas PDF de um objeto armazenado: integridade do intervalo assinado,
+ * vínculo com o certificado configurado e data da assinatura. Um documento com conteúdo
+ * acrescentado depois da última assinatura (atualização incremental) não é válido. O veredito fica em cache pelo
+ * SHA-256 do arquivo, então conferir de novo um documento inalterado custa só o hash.
+ */
+@Service
+public class VerificacaoAssinaturaService {
+
+    private record Veredito(boolean valido, List<AssinaturaVerificadaDTO> assinaturas) {}
+
+    private final MinioStorageService minioService;
+    private final CertificadoService certificadoService;
+    private final CacheLRU<String, Veredito> vereditos;
+
+    public VerificacaoAssinaturaService(MinioStorageService minioService,
+                                        CertificadoService certificadoService,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${siae.verificacao.cache.maximo:1000}") int maximoCache) {
+        this.minioService = minioService;
+        this.certificadoService = certificadoService;
+        // Sem validade: o veredito de um conteúdo só muda se o certificado configurado mudar (entra na chave)
+        this.vereditos = new CacheLRU<String, Veredito>("verificacao-assinatura", maximoCache, Duration.ZERO)
+                .registrarMetricas(meterRegistry);
+    }
+
+    public VerificacaoAssinaturaDTO verificarObjeto(String objeto) throws Exception {
+        Path arquivo = Files.createTempFile("siae-verificacao-", ".pdf");
+        try {
+            minioService.baixarParaArquivo(objeto, arquivo);
+            String sha256 = calcularSha256(arquivo);
+
+            X509Certificate[] cadeiaConfigurada = cadeiaConfigurada();
+            String chave = sha256 + ":" + versaoCertificado();
+
+            Veredito veredito = vereditos.obter(chave);
+            boolean emCache = veredito != null;
+            if (veredito == null) {
+                veredito = verificar(arquivo, cadeiaConfigurada);
+                vereditos.colocar(chave, veredito);
+            }
+            return new VerificacaoAssinaturaDTO(objeto, sha256, veredito.valido(), emCache, veredito.assinaturas());
+        } finally {
+            Files.deleteIfExists(arquivo);
+        }
+    }
+
+    private Veredito verificar(Path arquivo, X509Certificate[] cadeiaConfigurada) throws IOException {
+        List<AssinaturaVerificadaDTO> resultado = new ArrayList<>();
+        long tamanho = Files.size(arquivo);
+
+        try (PDDocument doc = PDDocument.load(arquivo.toFile(), MemoryUsageSetting.setupTempFileOnly());
+             FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            for (PDSignature assinatura : doc.getSignatureDictionaries()) {
+                resultado.add(verificarAssinatura(assinatura, canal, tamanho, cadeiaConfigurada));
+            }
+        }
+
+        // Alguma assinatura precisa ir até o último byte: o que foi anexado depois dela não está assinado
+        boolean valido = !resultado.isEmpty()
+                && resultado.stream().anyMatch(AssinaturaVerificadaDTO::isCobreDocumentoInteiro)
+                && resultado.stream().allMatch(a ->
+                        a.isIntegra() && a.isCertificadoConfere() && a.isCertificadoValidoNaData());
+        return new Veredito(valido, List.copyOf(resultado));
+    }
+
+    private AssinaturaVerificadaDTO verificarAssinatura(PDSignature assinatura, FileChannel canal, long tamanho,
+                                                        X509Certificate[] cadeiaConfigurada) {
+        AssinaturaVerificadaDTO dto = new AssinaturaVerificadaDTO();
+        dto.setNome(assinatura.getName());
+        try {
+            int[] byteRange = assinatura.getByteRange();
+            COSBase contents = assinatura.getCOSObject().getDictionaryObject(COSName.CONTENTS);
+            if (byteRange == null || byteRange.length != 4 || !(contents instanceof COSString cms)) {
+                throw new IllegalStateException("Assinatura sem /ByteRange ou /Contents.");
+            }
+            dto.setCobreDocumentoInteiro(byteRange[0] == 0 && (long) byteRange[2] + byteRange[3] == tamanho);
+
+            // O intervalo assinado é lido direto do arquivo, em stream, enquanto o BC calcula o hash
+            InputStream conteudoAssinado = new SequenceInputStream(
+                    new IntervaloInputStream(canal, byteRange[0], byteRange[1]),
+                    new IntervaloInputStream(canal, byteRange[2], byteRange[3]));
+            CMSSignedData signedData = new CMSSignedData(new CMSProcessableInputStream(conteudoAssinado), cms.getBytes());
+            SignerInformation signer = signedData.getSignerInfos().getSigners().iterator().next();
+
+            @SuppressWarnings("unchecked")
+            Collection<X509CertificateHolder> certificados = signedData.getCertificates().getMatches(signer.getSID());
+            if (certificados.isEmpty()) {
+                throw new IllegalStateException("O CMS não contém o certificado do signatário.");
+            }
+            X509Certificate certificado = new JcaX509CertificateConverter().getCertificate(certificados.iterator().next());
+            dto.setAssinante(certificado.getSubjectX500Principal().getName());
+
+            try {
+                dto.setIntegra(signer.verify(new JcaSimpleSignerInfoVerifierBuilder().build(certificado)));
+            } catch (CMSException e) {
+                // messageDigest diferente do hash calculado: o documento foi alterado depois de assinado
+                dto.setIntegra(false);
+                dto.setErro(e.getMessage());
+            }
+
+            Date data = dataAssinatura(signer, assinatura);
+            dto.setDataAssinatura(data);
+            dto.setCertificadoValidoNaData(validoEm(certificado, data));
+            dto.setCertificadoConfere(pertenceACadeia(certificado, cadeiaConfigurada));
+        } catch (Exception e) {
+            dto.setErro(e.getMessage());
+        }
+        return dto;
+    }
+
+    private Date dataAssinatura(SignerInformation signer, PDSignature assinatura) {
+        Attribute signingTime = signer.getSignedAttributes() == null ? null
+                : signer.getSignedAttributes().get(CMSAttributes.signingTime);
+        if (signingTime != null) {
+            return Time.getInstance(signingTime.getAttrValues().getObjectAt(0)).getDate();
+        }
+        return assinatura.getSignDate() != null ? assinatura.getSignDate().getTime() : null;
+    }
+
+    private boolean validoEm(X509Certificate certificado, Date data) {
+        try {
+            certificado.checkValidity(data != null ? data : new Date());
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * O signatário confere se é o próprio certificado configurado ou foi emitido por algum
+     * certificado da cadeia configurada.
+     */
+    private boolean pertenceACadeia(X509Certificate certificado, X509Certificate[] cadeia) {
+        for (X509Certificate configurado : cadeia) {
+            if (configurado.equals(certificado)) {
+                return true;
+            }
+            if (configurado.getSubjectX500Principal().equals(certificado.getIssuerX500Principal())) {
+                try {
+                    certificado.verify(configurado.getPublicKey());
+                    return true;
+                } catch (Exception ignorado) {
+                    // Mesmo nome de emissor, chave diferente: segue procurando
+                }
+            }
+        }
+        return false;
+    }
+
+    private X509Certificate[] cadeiaConfigurada() {
+        if (!certificadoService.existeCertificadoValido()) {
+            return new X509Certificate[0];
+        }
+        try {
+            Certificate[] cadeia = certificadoService.getCredencialAssinatura().getCadeia();
+            List<X509Certificate> certificados = new ArrayList<>();
+            for (Certificate c : cadeia) {
+                if (c instanceof X509Certificate x509) certificados.add(x509);
+            }
+            return certificados.toArray(new X509Certificate[0]);
+        } catch (Exception e) {
+            return new X509Certificate[0];
+        }
+    }
+
+    private String versaoCertificado() {
+        if (!certificadoService.existeCertificadoValido()) {
+            return "sem-certificado";
+        }
+        try {
+            return Long.toString(certificadoService.getCredencialAssinatura().getUltimaModificacao());
+        } catch (Exception e) {
+            return "sem-certificado";
+        }
+    }
+
+    private String calcularSha256(Path arquivo) throws Exception {
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new DigestInputStream(Files.newInputStream(arquivo), md)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return Hex.toHexString(md.digest());
+    }
+
+    /**
+     * Trecho [inicio, inicio + tamanho) do arquivo, com leituras posicionais (não move o canal).
+     */
+    private static class IntervaloInputStream extends InputStream {
+
+        private final FileChannel canal;
+        private long posicao;
+        private final long fim;
+
+        IntervaloInputStream(FileChannel canal, long inicio, long tamanho) {
+            this.canal = canal;
+            this.posicao = inicio;
+            this.fim = inicio + tamanho;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] um = new byte[1];
+            return read(um, 0, 1) < 0 ? -1 : um[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (posicao >= fim) return -1;
+            int n = (int) Math.min(len, fim - posicao);
+            int lidos = canal.read(ByteBuffer.wrap(b, off, n), posicao);
+            if (lidos < 0) return -1;
+            posicao += lidos;
+            return lidos;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package br.com.mgctecnologia.siae.api.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Operações básicas de armazenamento dos documentos, por nome de objeto ("pasta/arquivo.pdf").
+ * A implementação é escolhida por siae.storage.tipo: "minio" (padrão) ou "filesystem".
+ * Cache, métricas de uso e regras de negócio ficam no MinioStorageService, acima desta camada.
+ */
+public interface DocumentStorage {
+
+    /**
+     * Abre o conteúdo a gravar; pode ser chamado mais de uma vez se o envio precisar ser repetido.
+     */
+    @FunctionalInterface
+    interface Conteudo {
+        InputStream abrir() throws IOException;
+    }
+
+    /** Nome para logs e health check (ex.: "MinIO documentos", "Disco /srv/siae"). */
+    String descricao();
+
+    /** Se o armazenamento responde (bucket existente ou diretório gravável); usado pelo health check. */
+    boolean disponivel() throws Exception;
+
+    void gravar(String objeto, String contentType, long tamanho, Conteudo conteudo) throws Exception;
+
+    /** Metadados do objeto, ou vazio se ele não existe. */
+    Optional<InfoObjeto> consultar(String objeto) throws Exception;
+
+    /** Conteúdo a partir de {@code inicio}; com {@code tamanho} nulo lê até o fim. */
+    InputStream ler(String objeto, long inicio, Long tamanho) throws Exception;
+
+    /** Remoção em lote; falhas individuais são só registradas. */
+    void remover(Collection<String> objetos);
+
+    /** Objetos sob o prefixo (recursivo), com o tamanho de cada um. */
+    Map<String, Long> listar(String prefixo) throws Exception;
+
+    /** Junta as partes, na ordem, em um objeto só. */
+    void compor(List<String> partes, String objeto, String contentType) throws Exception;
+
+    /** Link de leitura temporário: URL pré-assinada do MinIO ou link assinado servido pela própria API. */
+    String gerarUrlLeitura(String objeto, Duration validade) throws Exception;
+
+    /** Se os objetos já estão em disco local (um cache em disco na frente não traria ganho). */
+    default boolean ehLocal() {
+        return false;
+    }
+
+    /** Se o navegador pode enviar arquivos direto ao armazenamento (política de upload). */
+    default boolean suportaUploadDireto() {
+        return false;
+    }
+
+    /**
+     * Campos do formulário de upload direto (já com "key"); só para backends com {@link #suportaUploadDireto()}.
+     */
+    default Map<String, String> gerarPoliticaUpload(String objeto, String contentType, long tamanhoMaximo,
+                                                    ZonedDateTime expiraEm) throws Exception {
+        throw new UnsupportedOperationException("O armazenamento " + descricao() + " não aceita upload direto do navegador.");
+    }
+
+    /** Endereço para onde o formulário da política de upload deve ser enviado. */
+    default String getUrlUpload() {
+        throw new UnsupportedOperationException("O armazenamento " + descricao() + " não aceita upload direto do navegador.");
+    }
+}
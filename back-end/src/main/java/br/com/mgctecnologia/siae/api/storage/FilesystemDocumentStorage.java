@@ -0,0 +1,293 @@
+package br.com.mgctecnologia.siae.api.storage;
+
+import br.com.mgctecnologia.siae.api.service.TemporizadorEtapas;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.UserDefinedFileAttributeView;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Armazenamento em diretório local, para instalações de um servidor só (e testes sem MinIO).
+ * Cada gravação vai para um temporário e é renomeada de forma atômica, então leitores nunca
+ * veem arquivo pela metade. Links de leitura são assinados com HMAC e servidos pela própria API
+ * (GET /api/arquivos); upload direto do navegador não existe neste modo.
+ */
+@Component
+@ConditionalOnProperty(name = "siae.storage.tipo", havingValue = "filesystem")
+public class FilesystemDocumentStorage implements DocumentStorage {
+
+    private static final Logger log = LoggerFactory.getLogger(FilesystemDocumentStorage.class);
+    private static final String PASTA_TEMPORARIOS = ".tmp";
+    private static final String ATRIBUTO_CONTENT_TYPE = "siae.content-type";
+
+    private final Path raiz;
+    private final Path temporarios;
+    private final String urlBase;
+    private final byte[] segredo;
+    private final TemporizadorEtapas temporizador;
+
+    public FilesystemDocumentStorage(@Value("${siae.storage.filesystem.diretorio:${user.home}/.siae/documentos}") String diretorio,
+                                     @Value("${siae.storage.filesystem.url-base:http://localhost:8080}") String urlBase,
+                                     @Value("${siae.storage.filesystem.segredo:}") String segredo,
+                                     TemporizadorEtapas temporizador) throws IOException {
+        this.raiz = Paths.get(diretorio).toAbsolutePath().normalize();
+        this.temporarios = raiz.resolve(PASTA_TEMPORARIOS);
+        this.urlBase = urlBase.replaceAll("/+$", "");
+        this.temporizador = temporizador;
+        Files.createDirectories(temporarios);
+
+        if (segredo.isBlank()) {
+            // Sem segredo configurado os links valem só até o próximo reinício
+            this.segredo = new byte[32];
+            new SecureRandom().nextBytes(this.segredo);
+        } else {
+            this.segredo = segredo.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public String descricao() {
+        return "Disco " + raiz;
+    }
+
+    @Override
+    public boolean disponivel() {
+        return Files.isDirectory(raiz) && Files.isWritable(raiz);
+    }
+
+    @Override
+    public boolean ehLocal() {
+        return true;
+    }
+
+    @Override
+    public void gravar(String objeto, String contentType, long tamanho, Conteudo conteudo) throws Exception {
+        Path destino = resolver(objeto);
+        Path temporario = Files.createTempFile(temporarios, "gravacao-", ".tmp");
+        try {
+            temporizador.cronometrar("disco-put", () -> {
+                try (InputStream in = conteudo.abrir()) {
+                    Files.copy(in, temporario, StandardCopyOption.REPLACE_EXISTING);
+                }
+                gravarContentType(temporario, contentType);
+                Files.createDirectories(destino.getParent());
+                Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            });
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    @Override
+    public Optional<InfoObjeto> consultar(String objeto) throws Exception {
+        Path arquivo = resolver(objeto);
+        if (!Files.isRegularFile(arquivo)) {
+            return Optional.empty();
+        }
+        BasicFileAttributes atributos = Files.readAttributes(arquivo, BasicFileAttributes.class);
+        long modificacao = atributos.lastModifiedTime().toMillis();
+        // Cada gravação cria um arquivo novo (rename), então tamanho + data identificam a versão
+        String etag = Long.toHexString(atributos.size()) + "-" + Long.toHexString(modificacao);
+        return Optional.of(new InfoObjeto(atributos.size(), etag, lerContentType(arquivo),
+                Instant.ofEpochMilli(modificacao).atZone(ZoneId.systemDefault())));
+    }
+
+    @Override
+    public InputStream ler(String objeto, long inicio, Long tamanho) throws Exception {
+        FileChannel canal = FileChannel.open(resolver(objeto), StandardOpenOption.READ);
+        canal.position(inicio);
+        InputStream in = Channels.newInputStream(canal);
+        return tamanho == null ? in : new LimiteInputStream(in, tamanho);
+    }
+
+    @Override
+    public void remover(Collection<String> objetos) {
+        for (String objeto : objetos) {
+            try {
+                Files.deleteIfExists(resolver(objeto));
+            } catch (Exception e) {
+                log.warn("Não foi possível remover {} do disco: {}", objeto, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Long> listar(String prefixo) throws Exception {
+        Map<String, Long> objetos = new TreeMap<>();
+        int barra = prefixo.lastIndexOf('/');
+        Path base = barra < 0 ? raiz : resolver(prefixo.substring(0, barra));
+        if (!Files.isDirectory(base)) {
+            return objetos;
+        }
+        try (Stream<Path> arquivos = Files.walk(base)) {
+            for (Path arquivo : (Iterable<Path>) arquivos.filter(Files::isRegularFile)::iterator) {
+                if (arquivo.startsWith(temporarios)) continue;
+                String nome = raiz.relativize(arquivo).toString().replace('\\', '/');
+                if (nome.startsWith(prefixo)) {
+                    objetos.put(nome, Files.size(arquivo));
+                }
+            }
+        }
+        return objetos;
+    }
+
+    /**
+     * Concatena as partes com FileChannel.transferTo (cópia feita pelo sistema operacional).
+     */
+    @Override
+    public void compor(List<String> partes, String objeto, String contentType) throws Exception {
+        Path destino = resolver(objeto);
+        Path temporario = Files.createTempFile(temporarios, "composicao-", ".tmp");
+        try {
+            try (FileChannel saida = FileChannel.open(temporario, StandardOpenOption.WRITE)) {
+                for (String parte : partes) {
+                    try (FileChannel entrada = FileChannel.open(resolver(parte), StandardOpenOption.READ)) {
+                        long posicao = 0;
+                        long tamanho = entrada.size();
+                        while (posicao < tamanho) {
+                            posicao += entrada.transferTo(posicao, tamanho - posicao, saida);
+                        }
+                    }
+                }
+            }
+            gravarContentType(temporario, contentType);
+            Files.createDirectories(destino.getParent());
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    @Override
+    public String gerarUrlLeitura(String objeto, Duration validade) {
+        long expira = Instant.now().plus(validade).getEpochSecond();
+        // Variáveis expandidas são codificadas por completo ("/" e "+" do nome não se perdem na query)
+        return UriComponentsBuilder.fromHttpUrl(urlBase + "/api/arquivos")
+                .queryParam("objeto", "{objeto}")
+                .queryParam("expira", expira)
+                .queryParam("assinatura", "{assinatura}")
+                .encode()
+                .buildAndExpand(objeto, assinar(objeto, expira))
+                .toUriString();
+    }
+
+    /**
+     * Confere um link gerado por {@link #gerarUrlLeitura}: assinatura íntegra e prazo não vencido.
+     */
+    public boolean linkValido(String objeto, long expira, String assinatura) {
+        if (assinatura == null || Instant.now().getEpochSecond() > expira) {
+            return false;
+        }
+        return MessageDigest.isEqual(assinar(objeto, expira).getBytes(StandardCharsets.US_ASCII),
+                assinatura.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String assinar(String objeto, long expira) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(segredo, "HmacSHA256"));
+            byte[] hmac = mac.doFinal((objeto + "\n" + expira).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hmac);
+        } catch (Exception e) {
+            throw new IllegalStateException("Erro ao assinar link: " + e.getMessage(), e);
+        }
+    }
+
+    // Nome do objeto vindo de fora nunca pode apontar para fora do diretório raiz
+    private Path resolver(String objeto) {
+        Path caminho = raiz.resolve(objeto).normalize();
+        if (!caminho.startsWith(raiz) || caminho.equals(raiz) || caminho.startsWith(temporarios)) {
+            throw new IllegalArgumentException("Nome de objeto inválido: " + objeto);
+        }
+        return caminho;
+    }
+
+    // O tipo fica num atributo estendido do arquivo; sem suporte no sistema de arquivos, é deduzido pelo nome
+    private static void gravarContentType(Path arquivo, String contentType) {
+        if (contentType == null) return;
+        try {
+            UserDefinedFileAttributeView atributos = Files.getFileAttributeView(arquivo, UserDefinedFileAttributeView.class);
+            if (atributos != null) {
+                atributos.write(ATRIBUTO_CONTENT_TYPE, StandardCharsets.UTF_8.encode(contentType));
+            }
+        } catch (IOException | UnsupportedOperationException ignorada) {
+            // Sem atributos estendidos
+        }
+    }
+
+    private static String lerContentType(Path arquivo) {
+        try {
+            UserDefinedFileAttributeView atributos = Files.getFileAttributeView(arquivo, UserDefinedFileAttributeView.class);
+            if (atributos != null && atributos.list().contains(ATRIBUTO_CONTENT_TYPE)) {
+                ByteBuffer valor = ByteBuffer.allocate(atributos.size(ATRIBUTO_CONTENT_TYPE));
+                atributos.read(ATRIBUTO_CONTENT_TYPE, valor);
+                valor.flip();
+                return StandardCharsets.UTF_8.decode(valor).toString();
+            }
+            String deduzido = Files.probeContentType(arquivo);
+            return deduzido != null ? deduzido : "application/octet-stream";
+        } catch (IOException | UnsupportedOperationException e) {
+            return "application/octet-stream";
+        }
+    }
+
+    /**
+     * Lê no máximo {@code restante} bytes do stream de baixo (leitura de um trecho).
+     */
+    private static class LimiteInputStream extends FilterInputStream {
+
+        private long restante;
+
+        LimiteInputStream(InputStream in, long limite) {
+            super(in);
+            this.restante = limite;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (restante <= 0) return -1;
+            int b = super.read();
+            if (b >= 0) restante--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (restante <= 0) return -1;
+            int lidos = super.read(b, off, (int) Math.min(len, restante));
+            if (lidos > 0) restante -= lidos;
+            return lidos;
+        }
+    }
+}
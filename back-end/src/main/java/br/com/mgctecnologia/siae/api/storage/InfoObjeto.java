@@ -0,0 +1,8 @@
+package br.com.mgctecnologia.siae.api.storage;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Metadados de um objeto armazenado. O ETag muda sempre que o conteúdo é regravado.
+ */
+public record InfoObjeto(long tamanho, String etag, String contentType, ZonedDateTime ultimaModificacao) {}
@@ -0,0 +1,253 @@
+package br.com.mgctecnologia.siae.api.storage;
+
+import br.com.mgctecnologia.siae.api.service.TemporizadorEtapas;
+import io.minio.*;
+import io.minio.errors.ErrorResponseException;
+import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Item;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Armazenamento no bucket do MinIO (padrão).
+ */
+@Component
+@ConditionalOnProperty(name = "siae.storage.tipo", havingValue = "minio", matchIfMissing = true)
+public class MinioDocumentStorage implements DocumentStorage {
+
+    private static final Logger log = LoggerFactory.getLogger(MinioDocumentStorage.class);
+
+    private final MinioClient minioClient;
+    private final TemporizadorEtapas temporizador;
+
+    @Value("${minio.bucket.name}")
+    private String bucketName;
+
+    @Value("${minio.url}")
+    private String minioUrl;
+
+    // Bucket já verificado/criado; volta a false só quando um PUT recebe NoSuchBucket
+    private volatile boolean bucketPronto;
+
+    public MinioDocumentStorage(MinioClient minioClient, TemporizadorEtapas temporizador) {
+        this.minioClient = minioClient;
+        this.temporizador = temporizador;
+    }
+
+    @Override
+    public String descricao() {
+        return "MinIO " + bucketName;
+    }
+
+    @Override
+    public boolean disponivel() throws Exception {
+        return minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build());
+    }
+
+    /**
+     * Provisiona o bucket na subida da aplicação. Se o MinIO ainda não estiver no ar,
+     * a verificação fica para o primeiro upload.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void provisionarBucket() {
+        try {
+            garantirBucket();
+        } catch (Exception e) {
+            log.warn("MinIO indisponível na inicialização; o bucket {} será verificado no primeiro upload: {}",
+                    bucketName, e.getMessage());
+        }
+    }
+
+    /**
+     * Verifica (e cria, se preciso) o bucket uma única vez; depois disso é só a leitura de um flag.
+     */
+    void garantirBucket() throws Exception {
+        if (bucketPronto) {
+            return;
+        }
+        synchronized (this) {
+            if (bucketPronto) {
+                return;
+            }
+            boolean found = temporizador.medir("minio-bucket",
+                    () -> minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build()));
+            if (!found) {
+                minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucketName).build());
+            }
+            bucketPronto = true;
+        }
+    }
+
+    /**
+     * Um único PUT no caminho normal. Só se o MinIO responder NoSuchBucket (bucket apagado por fora)
+     * o provisionamento é refeito e o envio repetido uma vez, com um stream novo.
+     */
+    @Override
+    public void gravar(String objeto, String contentType, long tamanho, Conteudo conteudo) throws Exception {
+        garantirBucket();
+        try {
+            put(objeto, contentType, tamanho, conteudo);
+        } catch (ErrorResponseException e) {
+            if (e.errorResponse() == null || !"NoSuchBucket".equals(e.errorResponse().code())) {
+                throw e;
+            }
+            bucketPronto = false;
+            garantirBucket();
+            put(objeto, contentType, tamanho, conteudo);
+        }
+    }
+
+    private void put(String objeto, String contentType, long tamanho, Conteudo conteudo) throws Exception {
+        try (InputStream in = conteudo.abrir()) {
+            temporizador.medir("minio-put", () -> minioClient.putObject(
+                    PutObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(objeto) // Nome único do arquivo
+                            .stream(in, tamanho, -1)
+                            .contentType(contentType)
+                            .build()));
+        }
+    }
+
+    @Override
+    public Optional<InfoObjeto> consultar(String objeto) throws Exception {
+        try {
+            StatObjectResponse stat = temporizador.medir("minio-stat", () -> minioClient.statObject(
+                    StatObjectArgs.builder().bucket(bucketName).object(objeto).build()));
+            return Optional.of(new InfoObjeto(stat.size(), stat.etag(), stat.contentType(), stat.lastModified()));
+        } catch (ErrorResponseException e) {
+            if (e.errorResponse() != null && "NoSuchKey".equals(e.errorResponse().code())) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Só o trecho pedido sai do MinIO (GET com Range).
+     */
+    @Override
+    public InputStream ler(String objeto, long inicio, Long tamanho) throws Exception {
+        GetObjectArgs.Builder args = GetObjectArgs.builder().bucket(bucketName).object(objeto);
+        if (inicio > 0 || tamanho != null) {
+            args.offset(inicio);
+            if (tamanho != null) args.length(tamanho);
+        }
+        return minioClient.getObject(args.build());
+    }
+
+    @Override
+    public void remover(Collection<String> objetos) {
+        if (objetos.isEmpty()) {
+            return;
+        }
+        List<DeleteObject> remover = new ArrayList<>();
+        for (String objeto : objetos) {
+            remover.add(new DeleteObject(objeto));
+        }
+        // O resultado é preguiçoso: a remoção só acontece ao percorrer os erros
+        for (Result<DeleteError> erro : minioClient.removeObjects(
+                RemoveObjectsArgs.builder().bucket(bucketName).objects(remover).build())) {
+            try {
+                DeleteError falha = erro.get();
+                log.warn("Não foi possível remover {} do MinIO: {}", falha.objectName(), falha.message());
+            } catch (Exception e) {
+                log.warn("Erro ao remover objetos do MinIO: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Long> listar(String prefixo) throws Exception {
+        Map<String, Long> objetos = new LinkedHashMap<>();
+        for (Result<Item> resultado : minioClient.listObjects(
+                ListObjectsArgs.builder().bucket(bucketName).prefix(prefixo).recursive(true).build())) {
+            Item item = resultado.get();
+            objetos.put(item.objectName(), item.size());
+        }
+        return objetos;
+    }
+
+    /**
+     * Composição no próprio MinIO (os bytes não passam pela API).
+     * Todas as partes, exceto a última, precisam ter pelo menos 5 MB.
+     */
+    @Override
+    public void compor(List<String> partes, String objeto, String contentType) throws Exception {
+        garantirBucket();
+        List<ComposeSource> fontes = new ArrayList<>();
+        for (String parte : partes) {
+            fontes.add(ComposeSource.builder().bucket(bucketName).object(parte).build());
+        }
+        ComposeObjectArgs.Builder args = ComposeObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objeto)
+                .sources(fontes);
+        if (contentType != null) {
+            args.headers(Map.of("Content-Type", contentType));
+        }
+        temporizador.medir("minio-compose", () -> minioClient.composeObject(args.build()));
+    }
+
+    @Override
+    public String gerarUrlLeitura(String objeto, Duration validade) throws Exception {
+        return temporizador.medir("minio-presign", () -> minioClient.getPresignedObjectUrl(
+                GetPresignedObjectUrlArgs.builder()
+                        .method(Method.GET)
+                        .bucket(bucketName)
+                        .object(objeto)
+                        .expiry((int) validade.toSeconds(), TimeUnit.SECONDS)
+                        .build()));
+    }
+
+    @Override
+    public boolean suportaUploadDireto() {
+        return true;
+    }
+
+    /**
+     * Política de upload (POST de formulário) para o navegador enviar direto ao MinIO.
+     * Só aceita exatamente esse objeto e o tamanho limite.
+     */
+    @Override
+    public Map<String, String> gerarPoliticaUpload(String objeto, String contentType, long tamanhoMaximo,
+                                                   ZonedDateTime expiraEm) throws Exception {
+        garantirBucket();
+        PostPolicy policy = new PostPolicy(bucketName, expiraEm);
+        policy.addEqualsCondition("key", objeto);
+        policy.addContentLengthRangeCondition(1, tamanhoMaximo);
+        if (contentType != null && !contentType.isBlank()) {
+            policy.addEqualsCondition("Content-Type", contentType);
+        }
+
+        Map<String, String> campos = new LinkedHashMap<>(minioClient.getPresignedPostFormData(policy));
+        campos.put("key", objeto);
+        if (contentType != null && !contentType.isBlank()) {
+            campos.put("Content-Type", contentType);
+        }
+        return campos;
+    }
+
+    @Override
+    public String getUrlUpload() {
+        return minioUrl.replaceAll("/+$", "") + "/" + bucketName;
+    }
+}
@@ -0,0 +1,66 @@
+-- Objetos que o Hibernate (ddl-auto=update) não cria. Roda a cada inicialização, depois do
+-- Hibernate (spring.jpa.defer-datasource-initialization), então tudo aqui precisa ser idempotente.
+-- Os comandos terminam em circunflexo + ponto e vírgula (spring.sql.init.separator), pois os corpos de função usam ";".
+
+-- ========== Busca textual de processos ==========
+
+-- Exige permissão para criar extensões (ou a extensão já instalada pelo DBA)
+CREATE EXTENSION IF NOT EXISTS unaccent^;
+
+-- unaccent() é STABLE (depende do search_path); com dicionário fixo pode ser usada em índices
+CREATE OR REPLACE FUNCTION siae_unaccent(texto text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+AS $$ SELECT public.unaccent('public.unaccent'::regdictionary, texto) $$^;
+
+ALTER TABLE processo_digital ADD COLUMN IF NOT EXISTS busca tsvector^;
+
+-- Assunto pesa mais que o nome do beneficiado no ranking
+CREATE OR REPLACE FUNCTION siae_processo_busca() RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    NEW.busca :=
+        setweight(to_tsvector('portuguese', siae_unaccent(coalesce(NEW.assunto, ''))), 'A') ||
+        setweight(to_tsvector('portuguese', siae_unaccent(coalesce(
+            (SELECT s.nome_completo FROM dados_servidor s WHERE s.id_servidor = NEW.id_servidor), ''))), 'B');
+    RETURN NEW;
+END
+$$^;
+
+DROP TRIGGER IF EXISTS trg_processo_busca ON processo_digital^;
+CREATE TRIGGER trg_processo_busca
+    BEFORE INSERT OR UPDATE OF assunto, id_servidor ON processo_digital
+    FOR EACH ROW EXECUTE FUNCTION siae_processo_busca()^;
+
+-- Nome do servidor alterado: recalcula os processos dele (o SET dispara o trigger acima)
+CREATE OR REPLACE FUNCTION siae_servidor_busca() RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    UPDATE processo_digital SET assunto = assunto WHERE id_servidor = NEW.id_servidor;
+    RETURN NULL;
+END
+$$^;
+
+DROP TRIGGER IF EXISTS trg_servidor_busca ON dados_servidor^;
+CREATE TRIGGER trg_servidor_busca
+    AFTER UPDATE OF nome_completo ON dados_servidor
+    FOR EACH ROW WHEN (OLD.nome_completo IS DISTINCT FROM NEW.nome_completo)
+    EXECUTE FUNCTION siae_servidor_busca()^;
+
+-- Processos gravados antes da coluna existir
+UPDATE processo_digital SET assunto = assunto WHERE busca IS NULL^;
+
+CREATE INDEX IF NOT EXISTS idx_processo_busca ON processo_digital USING gin (busca)^;
+
+-- ========== Autocomplete de servidores ==========
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm^;
+
+-- Trecho do nome (LIKE '%...%') e semelhança (<%), sem acentos e sem caixa
+CREATE INDEX IF NOT EXISTS idx_servidor_nome_trgm
+    ON dados_servidor USING gin (lower(siae_unaccent(nome_completo)) gin_trgm_ops)^;
+
+-- Começo do nome (LIKE '...%'), para termos curtos demais para trigramas
+CREATE INDEX IF NOT EXISTS idx_servidor_nome_prefixo
+    ON dados_servidor (lower(siae_unaccent(nome_completo)) text_pattern_ops)^;
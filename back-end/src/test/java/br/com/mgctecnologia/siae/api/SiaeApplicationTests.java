@@ -1,13 +1,63 @@
 package br.com.mgctecnologia.siae.api;
 
+import br.com.mgctecnologia.siae.api.model.BackupHistory;
+import br.com.mgctecnologia.siae.api.repository.BackupRepository;
+import br.com.mgctecnologia.siae.api.storage.DocumentStorage;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Perfil "test": H2 em memória e documentos em disco, sem PostgreSQL nem MinIO
 @SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
 class SiaeApplicationTests {
 
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private DocumentStorage storage;
+
+	@Autowired
+	private BackupRepository backupRepository;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void healthCheckUsaOArmazenamentoConfigurado() throws Exception {
+		mockMvc.perform(get("/api/health"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.database.isUp").value(true))
+				.andExpect(jsonPath("$.minio.isUp").value(true))
+				.andExpect(jsonPath("$.minio.address").value(storage.descricao()));
+	}
+
+	@Test
+	void downloadDeBackupVemDoArmazenamentoConfigurado() throws Exception {
+		byte[] dump = "dump do banco".getBytes(StandardCharsets.UTF_8);
+		storage.gravar("backups/backup_teste.sql", "application/octet-stream", dump.length, () -> new ByteArrayInputStream(dump));
+		BackupHistory backup = new BackupHistory();
+		backup.setNomeArquivo("backup_teste.sql");
+		backup.setStatus("SUCESSO");
+		backup = backupRepository.save(backup);
+
+		mockMvc.perform(get("/api/backups/" + backup.getId() + "/download"))
+				.andExpect(status().isOk())
+				.andExpect(content().bytes(dump));
+	}
+
 }
@@ -0,0 +1,133 @@
+package br.com.mgctecnologia.siae.api.cache;
+
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Limite em bytes, descarte do menos usado e reconstrução do índice a partir do diretório.
+ */
+class CacheDiscoTest {
+
+	@TempDir
+	Path diretorio;
+
+	@Test
+	void descartaOMenosUsadoQuandoPassaDoLimiteEmBytes() throws IOException {
+		CacheDisco cache = new CacheDisco("teste", diretorio, 100);
+		adicionar(cache, "a", 40);
+		adicionar(cache, "b", 40);
+		fechar(cache.abrir("a")); // "b" passa a ser o menos usado
+
+		adicionar(cache, "c", 40);
+
+		assertEquals(2, cache.tamanho());
+		assertEquals(80, cache.getTotalBytes());
+		assertNull(cache.abrir("b"));
+		fechar(cache.abrir("a"));
+		fechar(cache.abrir("c"));
+		try (var arquivos = Files.list(diretorio)) {
+			assertEquals(2, arquivos.count());
+		}
+	}
+
+	@Test
+	void conteudoMaiorQueOCacheNaoEntraNemExpulsaOsDemais() throws IOException {
+		CacheDisco cache = new CacheDisco("teste", diretorio, 100);
+		adicionar(cache, "a", 40);
+
+		Path grande = adicionar(cache, "grande", 150);
+
+		assertFalse(Files.exists(grande));
+		assertNull(cache.abrir("grande"));
+		fechar(cache.abrir("a"));
+		assertEquals(40, cache.getTotalBytes());
+	}
+
+	@Test
+	void canalAbertoContinuaLegivelDepoisDoDescarte() throws IOException {
+		CacheDisco cache = new CacheDisco("teste", diretorio, 50);
+		adicionar(cache, "a", 40);
+		FileChannel canal = cache.abrir("a");
+
+		adicionar(cache, "b", 40);
+
+		assertNull(cache.abrir("a"));
+		try (canal) {
+			assertArrayEquals(conteudo(40), Channels.newInputStream(canal).readAllBytes());
+		}
+	}
+
+	@Test
+	void reconstroiOIndiceNaSubida() throws IOException {
+		CacheDisco anterior = new CacheDisco("teste", diretorio, 100);
+		adicionar(anterior, "a", 30);
+		adicionar(anterior, "b", 20);
+		Files.writeString(diretorio.resolve("parcial-123.tmp"), "interrompido");
+
+		CacheDisco cache = new CacheDisco("teste", diretorio, 100);
+
+		assertEquals(2, cache.tamanho());
+		assertEquals(50, cache.getTotalBytes());
+		assertFalse(Files.exists(diretorio.resolve("parcial-123.tmp")));
+		try (FileChannel canal = cache.abrir("a")) {
+			assertNotNull(canal);
+			assertArrayEquals(conteudo(30), Channels.newInputStream(canal).readAllBytes());
+		}
+	}
+
+	@Test
+	void subidaComLimiteMenorDescartaOsModificadosHaMaisTempo() throws Exception {
+		CacheDisco anterior = new CacheDisco("teste", diretorio, 100);
+		adicionar(anterior, "antigo", 40);
+		adicionar(anterior, "recente", 40);
+		long agora = System.currentTimeMillis();
+		arquivoDa("recente").toFile().setLastModified(agora);
+		arquivoDa("antigo").toFile().setLastModified(agora - 60_000);
+
+		CacheDisco cache = new CacheDisco("teste", diretorio, 50);
+
+		assertEquals(1, cache.tamanho());
+		assertNull(cache.abrir("antigo"));
+		fechar(cache.abrir("recente"));
+	}
+
+	private Path adicionar(CacheDisco cache, String chave, int tamanho) throws IOException {
+		Path temporario = cache.novoTemporario();
+		Files.write(temporario, conteudo(tamanho));
+		cache.adicionar(chave, temporario);
+		return temporario;
+	}
+
+	// Mesmo nome que o cache dá ao arquivo: sha256(chave).bin
+	private Path arquivoDa(String chave) throws NoSuchAlgorithmException {
+		byte[] hash = MessageDigest.getInstance("SHA-256").digest(chave.getBytes(StandardCharsets.UTF_8));
+		return diretorio.resolve(Hex.toHexString(hash) + ".bin");
+	}
+
+	private static byte[] conteudo(int tamanho) {
+		byte[] bytes = new byte[tamanho];
+		for (int i = 0; i < tamanho; i++) bytes[i] = (byte) i;
+		return bytes;
+	}
+
+	private static void fechar(FileChannel canal) throws IOException {
+		assertNotNull(canal);
+		canal.close();
+	}
+}
@@ -0,0 +1,67 @@
+package br.com.mgctecnologia.siae.api.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Descarte do menos usado pelo número de entradas e validade de cada entrada.
+ */
+class CacheLRUTest {
+
+	@Test
+	void descartaOMenosUsadoAoPassarDoMaximo() {
+		CacheLRU<String, String> cache = new CacheLRU<>("teste", 2, null);
+		cache.colocar("a", "1");
+		cache.colocar("b", "2");
+		cache.obter("a"); // "b" passa a ser o menos usado
+
+		cache.colocar("c", "3");
+
+		assertEquals(2, cache.tamanho());
+		assertNull(cache.obter("b"));
+		assertEquals("1", cache.obter("a"));
+		assertEquals("3", cache.obter("c"));
+	}
+
+	@Test
+	void entradaExpiradaNaoEhServida() throws InterruptedException {
+		CacheLRU<String, String> cache = new CacheLRU<>("teste", 10, Duration.ofMillis(20));
+		cache.colocar("a", "1");
+		assertEquals("1", cache.obter("a"));
+
+		Thread.sleep(40);
+
+		assertNull(cache.obter("a"));
+		assertEquals(0, cache.tamanho());
+	}
+
+	@Test
+	void semValidadeNaoExpira() throws InterruptedException {
+		CacheLRU<String, String> cache = new CacheLRU<>("teste", 10, Duration.ZERO);
+		cache.colocar("a", "1");
+
+		Thread.sleep(20);
+
+		assertEquals("1", cache.obter("a"));
+	}
+
+	@Test
+	void recalculaDepoisDeExpirarENaoGuardaNulos() throws InterruptedException {
+		CacheLRU<String, String> cache = new CacheLRU<>("teste", 10, Duration.ofMillis(20));
+		AtomicInteger calculos = new AtomicInteger();
+
+		cache.obterOuCalcular("a", chave -> "v" + calculos.incrementAndGet());
+		assertEquals("v1", cache.obterOuCalcular("a", chave -> "v" + calculos.incrementAndGet()));
+		Thread.sleep(40);
+		assertEquals("v2", cache.obterOuCalcular("a", chave -> "v" + calculos.incrementAndGet()));
+
+		cache.obterOuCalcular("nulo", chave -> null);
+		assertEquals(1, cache.tamanho());
+		assertEquals(3, cache.getFalhas()); // "a" duas vezes e "nulo" uma
+	}
+}
@@ -0,0 +1,73 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.model.DocsAnexados;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.ProcessoDigital;
+import br.com.mgctecnologia.siae.api.repository.ProcessoDigitalRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Assinatura em lote de objetos armazenados: só anexos do processo informado, gravados na pasta dele.
+ */
+class AssinaturaLoteServiceTest {
+
+	@Test
+	void assinadoFicaAoLadoDoAnexo() {
+		ProcessoDigital processo = processo(7L, "processo-3f2a/reqPessoa-requerimento.pdf", null);
+
+		assertEquals("processo-3f2a/ASSINADO-reqPessoa-requerimento.pdf",
+				AssinaturaLoteService.destinoAssinado(processo, "processo-3f2a/reqPessoa-requerimento.pdf"));
+	}
+
+	@Test
+	void assinadoDeBlobVaiParaAPastaDoProcesso() {
+		ProcessoDigital processo = processo(7L, "processo-3f2a/reqPessoa-requerimento.pdf", "blobs/ab/ab12cd34");
+
+		assertEquals("processo-3f2a/ASSINADO-outros.pdf",
+				AssinaturaLoteService.destinoAssinado(processo, "blobs/ab/ab12cd34"));
+	}
+
+	@Test
+	void recusaObjetoQueNaoEhAnexoDoProcesso() {
+		ProcessoDigital processo = processo(7L, "processo-3f2a/reqPessoa-requerimento.pdf", "blobs/ab/ab12cd34");
+
+		assertThrows(IllegalArgumentException.class,
+				() -> AssinaturaLoteService.destinoAssinado(processo, "processo-9b1c/reqPessoa-outro.pdf"));
+		assertThrows(IllegalArgumentException.class,
+				() -> AssinaturaLoteService.destinoAssinado(processo, "blobs/cd/cd98ef76"));
+		assertThrows(IllegalArgumentException.class,
+				() -> AssinaturaLoteService.destinoAssinado(processo, "processo-3f2a/../processo-9b1c/x.pdf"));
+	}
+
+	@Test
+	void loteComUmObjetoEstranhoNaoAssinaNenhum() {
+		MinioStorageService minioService = mock(MinioStorageService.class);
+		ProcessoDigitalRepository repository = mock(ProcessoDigitalRepository.class);
+		ProcessoDigital processo = processo(7L, "processo-3f2a/reqPessoa-requerimento.pdf", null);
+		when(repository.buscarComAnexos(any())).thenReturn(List.of(processo));
+		AssinaturaLoteService service = new AssinaturaLoteService(mock(AssinaturaDigitalService.class),
+				mock(CertificadoService.class), minioService, repository, Runnable::run);
+
+		assertThrows(IllegalArgumentException.class, () -> service.assinarObjetos(7L,
+				List.of("processo-3f2a/reqPessoa-requerimento.pdf", "blobs/cd/cd98ef76")));
+		verifyNoInteractions(minioService);
+	}
+
+	private static ProcessoDigital processo(Long id, String reqPessoa, String outros) {
+		DocsAnexados docs = new DocsAnexados();
+		docs.setReqPessoa(reqPessoa);
+		docs.setOutros(outros);
+		ProcessoDigital processo = new ProcessoDigital();
+		processo.setId_processo(id);
+		processo.setDocsAnexados(docs);
+		return processo;
+	}
+}
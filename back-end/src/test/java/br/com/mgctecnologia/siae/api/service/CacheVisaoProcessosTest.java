@@ -0,0 +1,87 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.Setor;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.Status;
+import br.com.mgctecnologia.siae.api.repository.ProcessoListagem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Invalidação do cache de visões em relação ao fim da transação que alterou o processo.
+ */
+class CacheVisaoProcessosTest {
+
+	private final CacheVisaoProcessos cache = new CacheVisaoProcessos(new SimpleMeterRegistry(), true, 100, 30);
+	private final AtomicInteger carregamentos = new AtomicInteger();
+
+	@AfterEach
+	void encerrarTransacao() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void segundaLeituraVemDoCache() {
+		cache.obter(1L, () -> carregar(1L, "original"));
+		cache.obter(1L, () -> carregar(1L, "original"));
+
+		assertEquals(1, carregamentos.get());
+	}
+
+	@Test
+	void invalidacaoSoValeDepoisDoCommit() {
+		cache.obter(1L, () -> carregar(1L, "original"));
+
+		TransactionSynchronizationManager.initSynchronization();
+		cache.invalidarAposCommit(1L);
+		// A transação que alterou o processo lê direto do banco
+		assertEquals("alterado", cache.obter(1L, () -> carregar(1L, "alterado")).orElseThrow().assunto());
+		concluir(TransactionSynchronization.STATUS_COMMITTED);
+
+		assertEquals("alterado", cache.obter(1L, () -> carregar(1L, "alterado")).orElseThrow().assunto());
+		assertEquals(3, carregamentos.get());
+	}
+
+	@Test
+	void leituraIniciadaAntesDaInvalidacaoNaoGuardaValorAntigo() {
+		cache.obter(1L, () -> {
+			Optional<ProcessoListagem> antiga = carregar(1L, "original");
+			cache.invalidarAposCommit(1L); // commit concorrente durante a leitura
+			return antiga;
+		});
+
+		assertEquals("alterado", cache.obter(1L, () -> carregar(1L, "alterado")).orElseThrow().assunto());
+	}
+
+	@Test
+	void alteracaoInvalidaListaCompleta() {
+		cache.listar(() -> List.of(carregar(1L, "a").orElseThrow()));
+		cache.invalidarAposCommit(2L);
+
+		assertEquals(2, cache.listar(() -> List.of(carregar(1L, "a").orElseThrow(), carregar(2L, "b").orElseThrow())).size());
+	}
+
+	private void concluir(int status) {
+		List<TransactionSynchronization> sincronizacoes = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		sincronizacoes.forEach(s -> s.afterCompletion(status));
+	}
+
+	private Optional<ProcessoListagem> carregar(Long id, String assunto) {
+		carregamentos.incrementAndGet();
+		return Optional.of(new ProcessoListagem(id, "Servidor", "63999990000", LocalDate.of(2024, 1, 1), 5,
+				LocalDate.of(2024, 1, 8), null, Setor.JURIDICO, Status.Em_Processamento_Juridico, assunto,
+				null, null, null, null, null, null, null, null));
+	}
+}
@@ -0,0 +1,62 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.DTO.ServidorPublicoDTO;
+import br.com.mgctecnologia.siae.api.model.ServidorPublico;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Busca por prefixo de palavra no índice em memória de nomes de servidores.
+ */
+class IndiceNomesServidoresTest {
+
+	private final IndiceNomesServidores indice = new IndiceNomesServidores(null, true);
+
+	@BeforeEach
+	void indexar() {
+		indice.atualizarAposCommit(servidor(1L, "João da Silva"));
+		indice.atualizarAposCommit(servidor(2L, "Maria Silveira"));
+		indice.atualizarAposCommit(servidor(3L, "Silvana Costa"));
+	}
+
+	@Test
+	void ignoraAcentosEMaiusculas() {
+		assertEquals(List.of("João da Silva"), nomes(indice.buscar("JOAO", 10)));
+	}
+
+	@Test
+	void quemComecaComOTermoVemPrimeiro() {
+		assertEquals(List.of("Silvana Costa", "João da Silva", "Maria Silveira"), nomes(indice.buscar("silv", 10)));
+	}
+
+	@Test
+	void aceitaVariasPalavrasERespeitaOLimite() {
+		assertEquals(List.of("João da Silva"), nomes(indice.buscar("da sil", 10)));
+		assertEquals(1, indice.buscar("silv", 1).size());
+	}
+
+	@Test
+	void atualizacaoTrocaONomeIndexado() {
+		indice.atualizarAposCommit(servidor(1L, "João Pereira"));
+
+		assertEquals(List.of("Silvana Costa", "Maria Silveira"), nomes(indice.buscar("silv", 10)));
+		assertTrue(nomes(indice.buscar("pereira", 10)).contains("João Pereira"));
+	}
+
+	private static ServidorPublico servidor(Long id, String nome) {
+		ServidorPublico servidor = new ServidorPublico();
+		servidor.setId_servidor(id);
+		servidor.setNomeCompleto(nome);
+		servidor.setTelefone("63999990000");
+		return servidor;
+	}
+
+	private static List<String> nomes(List<ServidorPublicoDTO> servidores) {
+		return servidores.stream().map(ServidorPublicoDTO::getNomeCompleto).toList();
+	}
+}
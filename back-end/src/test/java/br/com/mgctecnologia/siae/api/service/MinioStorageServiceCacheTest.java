@@ -0,0 +1,115 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.storage.DocumentStorage;
+import br.com.mgctecnologia.siae.api.storage.InfoObjeto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cache em disco na entrega de documentos: só uma leitura completa da origem entra no cache.
+ */
+class MinioStorageServiceCacheTest {
+
+	private static final String OBJETO = "processo-1/reqPessoa-requerimento.pdf";
+	private static final byte[] CONTEUDO = conteudo(1000);
+	private static final InfoObjeto INFO = new InfoObjeto(CONTEUDO.length, "etag-1", "application/pdf", null);
+
+	@TempDir
+	Path diretorio;
+
+	private final DocumentStorage storage = mock(DocumentStorage.class);
+	private final MinioStorageService service = new MinioStorageService();
+
+	@BeforeEach
+	void configurar() throws Exception {
+		when(storage.ler(eq(OBJETO), anyLong(), any())).thenAnswer(invocacao -> {
+			int inicio = (int) (long) invocacao.getArgument(1, Long.class);
+			Long tamanho = invocacao.getArgument(2);
+			int fim = tamanho != null ? inicio + tamanho.intValue() : CONTEUDO.length;
+			return new ByteArrayInputStream(Arrays.copyOfRange(CONTEUDO, inicio, fim));
+		});
+		ReflectionTestUtils.setField(service, "storage", storage);
+		ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(service, "maximoUrlsEmCache", 10);
+		ReflectionTestUtils.setField(service, "validadeUrlEmCacheMinutos", 90L);
+		ReflectionTestUtils.setField(service, "cacheDiscoHabilitado", true);
+		ReflectionTestUtils.setField(service, "diretorioCacheDisco", diretorio.toString());
+		ReflectionTestUtils.setField(service, "maximoCacheDiscoMb", 1L);
+		ReflectionTestUtils.setField(service, "maximoObjetoCacheDiscoMb", 1L);
+		service.criarCaches();
+	}
+
+	@Test
+	void leituraCompletaEntraNoCache() throws Exception {
+		assertArrayEquals(CONTEUDO, transferir(0, null));
+
+		assertArrayEquals(CONTEUDO, transferir(0, null));
+		assertArrayEquals(Arrays.copyOfRange(CONTEUDO, 100, 150), transferir(100, 50L));
+		verify(storage, times(1)).ler(eq(OBJETO), anyLong(), any());
+	}
+
+	@Test
+	void trechoVemDaOrigemComRangeENaoEntraNoCache() throws Exception {
+		assertArrayEquals(Arrays.copyOfRange(CONTEUDO, 100, 150), transferir(100, 50L));
+		verify(storage).ler(OBJETO, 100, 50L);
+
+		transferir(0, null);
+		verify(storage).ler(OBJETO, 0, null);
+		assertTrue(semTemporarios());
+	}
+
+	@Test
+	void leituraInterrompidaNaoEntraNoCache() throws Exception {
+		OutputStream clienteDesconectou = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("conexão fechada");
+			}
+		};
+		assertThrows(IOException.class, () -> service.transferir(OBJETO, INFO, 0, null, clienteDesconectou));
+
+		assertArrayEquals(CONTEUDO, transferir(0, null));
+		verify(storage, times(2)).ler(OBJETO, 0, null);
+		assertTrue(semTemporarios());
+	}
+
+	private byte[] transferir(long inicio, Long tamanho) throws IOException {
+		ByteArrayOutputStream saida = new ByteArrayOutputStream();
+		service.transferir(OBJETO, INFO, inicio, tamanho, saida);
+		return saida.toByteArray();
+	}
+
+	private boolean semTemporarios() throws IOException {
+		try (var arquivos = Files.list(diretorio)) {
+			return arquivos.noneMatch(arquivo -> arquivo.getFileName().toString().endsWith(".tmp"));
+		}
+	}
+
+	private static byte[] conteudo(int tamanho) {
+		byte[] bytes = new byte[tamanho];
+		for (int i = 0; i < tamanho; i++) bytes[i] = (byte) (i * 31);
+		return bytes;
+	}
+}
@@ -0,0 +1,147 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.DTO.FiltroProcessoDTO;
+import br.com.mgctecnologia.siae.api.DTO.OrdemProcesso;
+import br.com.mgctecnologia.siae.api.DTO.PaginaProcessosDTO;
+import br.com.mgctecnologia.siae.api.DTO.ProcessoDigitalResponseDTO;
+import br.com.mgctecnologia.siae.api.DTO.ProcessoResumoDTO;
+import br.com.mgctecnologia.siae.api.model.DocsAnexados;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.ProcessoDigital;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.Setor;
+import br.com.mgctecnologia.siae.api.model.ServidorPublico;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cada listagem de processos deve sair em um único SELECT, qualquer que seja o número de processos
+ * (servidor e anexos vêm no mesmo comando, sem uma consulta extra por linha). O cache de visões
+ * fica desligado para que toda chamada chegue ao banco.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"siae.processos.cache.habilitado=false",
+		"spring.sql.init.mode=never"
+})
+@Import({ProcessoDigitalService.class, CacheVisaoProcessos.class, IndiceNomesServidores.class, SimpleMeterRegistry.class})
+class ProcessoDigitalServiceConsultasTest {
+
+	private static final int PROCESSOS = 10;
+
+	@Autowired
+	private ProcessoDigitalService processoDigitalService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@MockBean
+	private MinioStorageService minioService;
+
+	@MockBean
+	private JobAssinaturaService jobAssinaturaService;
+
+	@MockBean
+	private TemporizadorEtapas temporizador;
+
+	@MockBean
+	private PipelineAnexos pipelineAnexos;
+
+	private final List<Long> ids = new ArrayList<>();
+	private Statistics estatisticas;
+
+	@BeforeEach
+	void criarProcessos() {
+		for (int i = 0; i < PROCESSOS; i++) {
+			ServidorPublico servidor = new ServidorPublico();
+			servidor.setNomeCompleto("Servidor " + i);
+			servidor.setTelefone("6399999000" + i);
+
+			DocsAnexados docs = new DocsAnexados();
+			docs.setReqPessoa("processo-" + i + "/reqPessoa.pdf");
+			docs.setParecerJuridico("processo-" + i + "/parecerJuridico.pdf");
+
+			ProcessoDigital processo = new ProcessoDigital();
+			processo.setAssunto("Assunto " + i);
+			processo.setDataAbertura(LocalDate.of(2024, 1, 1).plusDays(i));
+			processo.setEstimativa(5);
+			processo.setDataPrevisao(LocalDate.of(2024, 1, 8).plusDays(i));
+			processo.setSetor(Setor.JURIDICO);
+			processo.setServidorPublico(servidor);
+			processo.setDocsAnexados(docs);
+			ids.add(entityManager.persist(processo).getId_processo());
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		estatisticas.clear();
+	}
+
+	@Test
+	void listarTodosUsaUmaConsulta() {
+		List<ProcessoDigitalResponseDTO> processos = processoDigitalService.listarTodos();
+
+		assertEquals(PROCESSOS, processos.size());
+		assertEquals("Servidor 0", processos.get(0).getNomeBeneficiado());
+		assertNotNull(processos.get(0).getDocsAnexados());
+		assertEquals(1, estatisticas.getPrepareStatementCount());
+	}
+
+	@Test
+	void listarResumoUsaUmaConsulta() {
+		List<ProcessoResumoDTO> processos = processoDigitalService.listarResumo();
+
+		assertEquals(PROCESSOS, processos.size());
+		assertTrue(processos.get(0).getDocumentos().isReqPessoa());
+		assertFalse(processos.get(0).getDocumentos().isOutros());
+		assertEquals(1, estatisticas.getPrepareStatementCount());
+	}
+
+	@Test
+	void listarPaginaUsaUmaConsulta() {
+		PaginaProcessosDTO pagina = processoDigitalService.listarPagina(new FiltroProcessoDTO(), OrdemProcesso.RECENTES, null, 4);
+
+		assertEquals(4, pagina.getItens().size());
+		assertEquals("Servidor 9", pagina.getItens().get(0).getNomeBeneficiado());
+		assertEquals(1, estatisticas.getPrepareStatementCount());
+	}
+
+	@Test
+	void buscarLinksEmLoteUsaUmaConsulta() {
+		Map<Long, ?> links = processoDigitalService.buscarLinks(ids);
+
+		assertEquals(PROCESSOS, links.size());
+		assertEquals(1, estatisticas.getPrepareStatementCount());
+	}
+
+	@Test
+	void buscarPorIdUsaUmaConsulta() {
+		ProcessoDigitalResponseDTO processo = processoDigitalService.buscarPorId(ids.get(0));
+
+		assertEquals("Servidor 0", processo.getNomeBeneficiado());
+		assertNotNull(processo.getDocsAnexados());
+		assertEquals(1, estatisticas.getPrepareStatementCount());
+	}
+}
@@ -0,0 +1,93 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.DTO.ProcessoDigitalDTO;
+import br.com.mgctecnologia.siae.api.DTO.ServidorPublicoDTO;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.ProcessoDigital;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.Setor;
+import br.com.mgctecnologia.siae.api.model.ServidorPublico;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Alterar os dados do servidor pela atualização do processo deve chegar ao índice de nomes
+ * do autocomplete depois do commit.
+ */
+@DataJpaTest(properties = {
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"siae.processos.cache.habilitado=false",
+		"spring.sql.init.mode=never"
+})
+@Import({ProcessoDigitalService.class, CacheVisaoProcessos.class, IndiceNomesServidores.class,
+		TemporizadorEtapas.class, SimpleMeterRegistry.class})
+class ProcessoDigitalServiceServidorTest {
+
+	@Autowired
+	private ProcessoDigitalService processoDigitalService;
+
+	@Autowired
+	private IndiceNomesServidores indiceNomes;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@MockBean
+	private MinioStorageService minioService;
+
+	@MockBean
+	private JobAssinaturaService jobAssinaturaService;
+
+	@MockBean
+	private PipelineAnexos pipelineAnexos;
+
+	@Test
+	void renomearServidorReindexaONome() {
+		ServidorPublico servidor = new ServidorPublico();
+		servidor.setNomeCompleto("João da Silva");
+		servidor.setTelefone("63999990000");
+
+		ProcessoDigital processo = new ProcessoDigital();
+		processo.setAssunto("Licença");
+		processo.setDataAbertura(LocalDate.of(2024, 1, 1));
+		processo.setEstimativa(5);
+		processo.setDataPrevisao(LocalDate.of(2024, 1, 8));
+		processo.setSetor(Setor.JURIDICO);
+		processo.setServidorPublico(servidor);
+		Long id = entityManager.persistAndFlush(processo).getId_processo();
+		// Nome atual no índice, como depois da carga na subida (entra no mesmo commit, antes da alteração)
+		indiceNomes.atualizarAposCommit(servidor);
+
+		when(pipelineAnexos.iniciar()).thenReturn(mock(PipelineAnexos.Execucao.class));
+		ServidorPublico alterado = new ServidorPublico();
+		alterado.setNomeCompleto("João Pereira");
+		alterado.setTelefone("63999990000");
+		ProcessoDigitalDTO dto = new ProcessoDigitalDTO();
+		dto.setServidorPublico(alterado);
+		processoDigitalService.atualizarProcesso(id, dto);
+
+		// Até a transação ser confirmada o índice não muda
+		assertTrue(indiceNomes.buscar("pereira", 10).isEmpty());
+		TestTransaction.flagForCommit();
+		TestTransaction.end();
+
+		assertEquals(List.of("João Pereira"), nomes(indiceNomes.buscar("pereira", 10)));
+		assertTrue(indiceNomes.buscar("silva", 10).isEmpty());
+	}
+
+	private static List<String> nomes(List<ServidorPublicoDTO> servidores) {
+		return servidores.stream().map(ServidorPublicoDTO::getNomeCompleto).toList();
+	}
+}
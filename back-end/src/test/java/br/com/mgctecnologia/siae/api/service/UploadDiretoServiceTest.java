@@ -0,0 +1,54 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.model.DocsAnexados;
+import br.com.mgctecnologia.siae.api.model.ProcessoDigital.ProcessoDigital;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pasta do processo usada nos nomes dos uploads diretos e retomáveis.
+ */
+class UploadDiretoServiceTest {
+
+	@Test
+	void semAnexosUsaAPastaPeloId() {
+		assertEquals("processo-7/", UploadDiretoService.prefixoDoProcesso(processo(7L, null)));
+	}
+
+	@Test
+	void reaproveitaAPastaDosAnexosGravados() {
+		DocsAnexados docs = new DocsAnexados();
+		docs.setReqPessoa("processo-3f2a/reqPessoa-requerimento.pdf");
+
+		assertEquals("processo-3f2a/", UploadDiretoService.prefixoDoProcesso(processo(7L, docs)));
+	}
+
+	@Test
+	void blobsDeduplicadosNaoViramPastaDoProcesso() {
+		DocsAnexados docs = new DocsAnexados();
+		docs.setReqPessoa("blobs/ab/ab12cd34");
+		DocsAnexados outros = new DocsAnexados();
+		outros.setReqPessoa("blobs/ab/ab12cd34");
+
+		// Dois processos com o mesmo blob não podem cair na mesma pasta (e sobrescrever um ao outro)
+		assertEquals("processo-7/", UploadDiretoService.prefixoDoProcesso(processo(7L, docs)));
+		assertEquals("processo-8/", UploadDiretoService.prefixoDoProcesso(processo(8L, outros)));
+	}
+
+	@Test
+	void ignoraOBlobEUsaOutroAnexoDaPasta() {
+		DocsAnexados docs = new DocsAnexados();
+		docs.setReqPessoa("blobs/ab/ab12cd34");
+		docs.setOutros("processo-3f2a/outros-anexo.pdf");
+
+		assertEquals("processo-3f2a/", UploadDiretoService.prefixoDoProcesso(processo(7L, docs)));
+	}
+
+	private static ProcessoDigital processo(Long id, DocsAnexados docs) {
+		ProcessoDigital processo = new ProcessoDigital();
+		processo.setId_processo(id);
+		processo.setDocsAnexados(docs);
+		return processo;
+	}
+}
@@ -0,0 +1,125 @@
+package br.com.mgctecnologia.siae.api.service;
+
+import br.com.mgctecnologia.siae.api.DTO.VerificacaoAssinaturaDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentInformation;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Verificação de um PDF assinado com um certificado autoassinado gerado na hora; o "armazenamento"
+ * é uma pasta local.
+ */
+class VerificacaoAssinaturaServiceTest {
+
+	private static final String SENHA = "siae-teste";
+
+	@TempDir
+	Path pasta;
+
+	private Path assinado;
+	private VerificacaoAssinaturaService verificacao;
+
+	@BeforeEach
+	void assinar() throws Exception {
+		CertificadoService certificadoService = new CertificadoService(pasta.resolve("certs"));
+		certificadoService.configurarCertificado(
+				new MockMultipartFile("arquivo", "teste.pfx", "application/x-pkcs12", gerarPkcs12()), SENHA);
+
+		Path original = pasta.resolve("original.pdf");
+		try (PDDocument doc = new PDDocument()) {
+			doc.addPage(new PDPage());
+			doc.save(original.toFile());
+		}
+		assinado = pasta.resolve("assinado.pdf");
+		new AssinaturaDigitalService(certificadoService, new TemporizadorEtapas(new SimpleMeterRegistry()))
+				.assinarArquivo(original, assinado);
+
+		// Cada objeto é o arquivo de mesmo nome na pasta
+		MinioStorageService minioService = mock(MinioStorageService.class);
+		doAnswer(chamada -> Files.copy(pasta.resolve(chamada.<String>getArgument(0)), chamada.<Path>getArgument(1),
+				StandardCopyOption.REPLACE_EXISTING)).when(minioService).baixarParaArquivo(anyString(), any(Path.class));
+		verificacao = new VerificacaoAssinaturaService(minioService, certificadoService, new SimpleMeterRegistry(), 10);
+	}
+
+	@Test
+	void documentoAssinadoIntactoEValido() throws Exception {
+		VerificacaoAssinaturaDTO resultado = verificacao.verificarObjeto("assinado.pdf");
+
+		assertTrue(resultado.isValido());
+		assertEquals(1, resultado.getAssinaturas().size());
+		assertTrue(resultado.getAssinaturas().get(0).isCobreDocumentoInteiro());
+	}
+
+	@Test
+	void atualizacaoIncrementalDepoisDaAssinaturaInvalida() throws Exception {
+		// Altera o título numa atualização incremental: o intervalo assinado continua íntegro,
+		// mas o arquivo passa a ter bytes que a assinatura não cobre
+		Path alterado = pasta.resolve("alterado.pdf");
+		try (PDDocument doc = PDDocument.load(assinado.toFile());
+			 OutputStream out = Files.newOutputStream(alterado)) {
+			PDDocumentInformation info = doc.getDocumentInformation();
+			info.setTitle("Conteúdo alterado depois da assinatura");
+			info.getCOSObject().setNeedToBeUpdated(true);
+			doc.getDocument().getTrailer().setNeedToBeUpdated(true);
+			doc.saveIncremental(out);
+		}
+		assertTrue(Files.size(alterado) > Files.size(assinado));
+
+		VerificacaoAssinaturaDTO resultado = verificacao.verificarObjeto("alterado.pdf");
+
+		assertTrue(resultado.getAssinaturas().get(0).isIntegra());
+		assertFalse(resultado.getAssinaturas().get(0).isCobreDocumentoInteiro());
+		assertFalse(resultado.isValido());
+	}
+
+	private static byte[] gerarPkcs12() throws Exception {
+		KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA");
+		kpg.initialize(2048);
+		KeyPair par = kpg.generateKeyPair();
+
+		X500Name titular = new X500Name("CN=SIAE Teste, O=MGC Tecnologia");
+		Date inicio = new Date(System.currentTimeMillis() - 60_000);
+		Date fim = new Date(inicio.getTime() + 365L * 24 * 60 * 60 * 1000);
+		X509Certificate certificado = new JcaX509CertificateConverter().getCertificate(
+				new JcaX509v3CertificateBuilder(titular, BigInteger.valueOf(inicio.getTime()), inicio, fim, titular, par.getPublic())
+						.build(new JcaContentSignerBuilder("SHA256withRSA").build(par.getPrivate())));
+
+		KeyStore ks = KeyStore.getInstance("PKCS12");
+		ks.load(null, null);
+		ks.setKeyEntry("siae", par.getPrivate(), SENHA.toCharArray(), new Certificate[]{certificado});
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ks.store(out, SENHA.toCharArray());
+		return out.toByteArray();
+	}
+}
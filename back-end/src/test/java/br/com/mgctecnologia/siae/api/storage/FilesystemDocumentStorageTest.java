@@ -0,0 +1,178 @@
+package br.com.mgctecnologia.siae.api.storage;
+
+import br.com.mgctecnologia.siae.api.service.TemporizadorEtapas;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Backend em disco local: gravação atômica, leitura de trechos, nomes fora da raiz e links assinados.
+ */
+class FilesystemDocumentStorageTest {
+
+	private static final String OBJETO = "processo-1/reqPessoa-requerimento.pdf";
+
+	@TempDir
+	Path diretorio;
+
+	private Path raiz;
+	private FilesystemDocumentStorage storage;
+
+	@BeforeEach
+	void criar() throws IOException {
+		raiz = diretorio.resolve("documentos");
+		storage = novoStorage("segredo");
+	}
+
+	@Test
+	void gravaELeOConteudo() throws Exception {
+		byte[] conteudo = conteudo(1000);
+		gravar(OBJETO, conteudo);
+
+		assertEquals(1000, storage.consultar(OBJETO).orElseThrow().tamanho());
+		try (InputStream in = storage.ler(OBJETO, 0, null)) {
+			assertArrayEquals(conteudo, in.readAllBytes());
+		}
+	}
+
+	@Test
+	void gravacaoInterrompidaMantemAVersaoAnterior() throws Exception {
+		byte[] anterior = conteudo(1000);
+		gravar(OBJETO, anterior);
+
+		assertThrows(IOException.class, () -> storage.gravar(OBJETO, "application/pdf", 1000, () -> new InputStream() {
+			private int lidos;
+
+			@Override
+			public int read() throws IOException {
+				if (lidos++ >= 500) throw new IOException("conexão interrompida");
+				return 'x';
+			}
+		}));
+
+		try (InputStream in = storage.ler(OBJETO, 0, null)) {
+			assertArrayEquals(anterior, in.readAllBytes());
+		}
+		try (var temporarios = Files.list(raiz.resolve(".tmp"))) {
+			assertEquals(0, temporarios.count());
+		}
+	}
+
+	@Test
+	void leitorAbertoNaoVeARegravacao() throws Exception {
+		byte[] anterior = conteudo(1000);
+		gravar(OBJETO, anterior);
+		byte[] nova = "nova versão".getBytes(StandardCharsets.UTF_8);
+
+		try (InputStream leitor = storage.ler(OBJETO, 0, null)) {
+			gravar(OBJETO, nova);
+			// O rename troca o arquivo inteiro: quem já estava lendo termina a versão antiga
+			assertArrayEquals(anterior, leitor.readAllBytes());
+		}
+		try (InputStream in = storage.ler(OBJETO, 0, null)) {
+			assertArrayEquals(nova, in.readAllBytes());
+		}
+	}
+
+	@Test
+	void leSoOTrechoPedido() throws Exception {
+		byte[] conteudo = conteudo(1000);
+		gravar(OBJETO, conteudo);
+
+		try (InputStream in = storage.ler(OBJETO, 100, 50L)) {
+			assertArrayEquals(Arrays.copyOfRange(conteudo, 100, 150), in.readAllBytes());
+		}
+		try (InputStream in = storage.ler(OBJETO, 900, null)) {
+			assertArrayEquals(Arrays.copyOfRange(conteudo, 900, 1000), in.readAllBytes());
+		}
+		// Trecho que passa do fim termina no fim do arquivo
+		try (InputStream in = storage.ler(OBJETO, 990, 50L)) {
+			assertArrayEquals(Arrays.copyOfRange(conteudo, 990, 1000), in.readAllBytes());
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"../fora.pdf", "processo-1/../../fora.pdf", ".tmp/gravacao-1.tmp", "", "."})
+	void recusaNomesForaDaRaiz(String objeto) throws IOException {
+		Files.writeString(diretorio.resolve("fora.pdf"), "fora da raiz");
+
+		assertThrows(IllegalArgumentException.class, () -> gravar(objeto, conteudo(10)));
+		assertThrows(IllegalArgumentException.class, () -> storage.consultar(objeto));
+		assertThrows(IllegalArgumentException.class, () -> storage.ler(objeto, 0, null));
+		assertEquals("fora da raiz", Files.readString(diretorio.resolve("fora.pdf")));
+	}
+
+	@Test
+	void recusaCaminhoAbsoluto() {
+		String absoluto = diretorio.resolve("fora.pdf").toAbsolutePath().toString();
+
+		assertThrows(IllegalArgumentException.class, () -> gravar(absoluto, conteudo(10)));
+	}
+
+	@Test
+	void linkAssinadoValeAteExpirar() throws Exception {
+		MultiValueMap<String, String> link = parametros(storage.gerarUrlLeitura(OBJETO, Duration.ofMinutes(5)));
+		String objeto = decodificar(link.getFirst("objeto"));
+		long expira = Long.parseLong(link.getFirst("expira"));
+		String assinatura = decodificar(link.getFirst("assinatura"));
+
+		assertEquals(OBJETO, objeto);
+		assertTrue(storage.linkValido(objeto, expira, assinatura));
+		assertFalse(storage.linkValido("processo-2/reqPessoa-outro.pdf", expira, assinatura));
+		assertFalse(storage.linkValido(objeto, expira + 3600, assinatura));
+		assertFalse(storage.linkValido(objeto, expira, null));
+		assertFalse(novoStorage("outro-segredo").linkValido(objeto, expira, assinatura));
+	}
+
+	@Test
+	void linkExpiradoNaoVale() throws Exception {
+		MultiValueMap<String, String> link = parametros(storage.gerarUrlLeitura(OBJETO, Duration.ofSeconds(-1)));
+
+		assertFalse(storage.linkValido(decodificar(link.getFirst("objeto")), Long.parseLong(link.getFirst("expira")),
+				decodificar(link.getFirst("assinatura"))));
+	}
+
+	private FilesystemDocumentStorage novoStorage(String segredo) throws IOException {
+		return new FilesystemDocumentStorage(raiz.toString(), "http://localhost:8080", segredo,
+				new TemporizadorEtapas(new SimpleMeterRegistry()));
+	}
+
+	private void gravar(String objeto, byte[] conteudo) throws Exception {
+		storage.gravar(objeto, "application/pdf", conteudo.length, () -> new ByteArrayInputStream(conteudo));
+	}
+
+	private static MultiValueMap<String, String> parametros(String url) {
+		return UriComponentsBuilder.fromUriString(url).build().getQueryParams();
+	}
+
+	private static String decodificar(String valor) {
+		return URLDecoder.decode(valor, StandardCharsets.UTF_8);
+	}
+
+	private static byte[] conteudo(int tamanho) {
+		byte[] bytes = new byte[tamanho];
+		for (int i = 0; i < tamanho; i++) bytes[i] = (byte) (i * 7);
+		return bytes;
+	}
+}